@@ -0,0 +1,15 @@
+package edu.epam.fop.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a class or a method that only reads and can tolerate replication lag; while it runs, its
+ * queries go to a read replica (see {@link edu.epam.fop.aspect.DataSourceRoutingAspect}).
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface ReadReplica {
+}
@@ -0,0 +1,15 @@
+package edu.epam.fop.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method whose writes the calling user expects to see at once: after it returns, that
+ * user's {@link ReadReplica} reads stay on the primary for {@code routing.readYourWritesMillis}.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface ReadYourWrites {
+}
@@ -0,0 +1,89 @@
+package edu.epam.fop.aspect;
+
+import edu.epam.fop.dao.RoutingDataSource;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opens a replica route around {@link edu.epam.fop.annotation.ReadReplica} methods and keeps
+ * users on the primary for a short read-your-writes window after a
+ * {@link edu.epam.fop.annotation.ReadYourWrites} method, so they never miss their own changes
+ * because a replica is behind.
+ */
+@Aspect
+@Component
+public class DataSourceRoutingAspect {
+
+    // expired windows are dropped once this many users are pinned
+    private static final int PURGE_THRESHOLD = 1024;
+
+    private final RoutingDataSource routingDataSource;
+    private final long readYourWritesNanos;
+    private final Map<String, Long> pinnedUntil = new ConcurrentHashMap<>();
+
+    @Autowired
+    public DataSourceRoutingAspect(RoutingDataSource routingDataSource,
+                                   @Value("${routing.readYourWritesMillis:5000}") long readYourWritesMillis) {
+        this.routingDataSource = routingDataSource;
+        this.readYourWritesNanos = TimeUnit.MILLISECONDS.toNanos(readYourWritesMillis);
+    }
+
+    @Around("@annotation(edu.epam.fop.annotation.ReadReplica) || @within(edu.epam.fop.annotation.ReadReplica)")
+    public Object routeToReplica(ProceedingJoinPoint pjp) throws Throwable {
+        if (!routingDataSource.hasReplicas() || isPinned(currentUser())) {
+            return pjp.proceed();
+        }
+        boolean entered = routingDataSource.enterReplicaRoute();
+        try {
+            return pjp.proceed();
+        } finally {
+            if (entered) {
+                routingDataSource.exitReplicaRoute();
+            }
+        }
+    }
+
+    @AfterReturning("@annotation(edu.epam.fop.annotation.ReadYourWrites)")
+    public void pinWriter() {
+        String user = currentUser();
+        if (user == null || readYourWritesNanos <= 0 || !routingDataSource.hasReplicas()) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (pinnedUntil.size() >= PURGE_THRESHOLD) {
+            pinnedUntil.values().removeIf(deadline -> deadline - now <= 0);
+        }
+        pinnedUntil.put(user, now + readYourWritesNanos);
+    }
+
+    private boolean isPinned(String user) {
+        if (user == null) {
+            return false;
+        }
+        Long deadline = pinnedUntil.get(user);
+        if (deadline == null) {
+            return false;
+        }
+        if (deadline - System.nanoTime() > 0) {
+            return true;
+        }
+        pinnedUntil.remove(user, deadline);
+        return false;
+    }
+
+    private static String currentUser() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth != null && auth.isAuthenticated() ? auth.getName() : null;
+    }
+}
@@ -1,29 +1,99 @@
 package edu.epam.fop.aspect;
 
+import edu.epam.fop.metrics.LatencyHistogram;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.lang.reflect.Method;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times service calls into per-method {@link LatencyHistogram}s.
+ * <p>
+ * Every call is measured with {@link System#nanoTime()} and recorded in memory; nothing is logged
+ * for an ordinary call. Calls slower than {@code logging.aspect.slowCallMillis} are logged as
+ * warnings, and a {@code logging.aspect.sampleRate} fraction of the remaining calls is logged at
+ * INFO, so the log still shows representative traffic without a line per call.
+ */
 @Aspect
 @Component
 public class LoggingAspect {
 
     private static final Logger log = LoggerFactory.getLogger(LoggingAspect.class);
 
+    private final long slowCallNanos;
+    private final double sampleRate;
+    private final Map<Method, MethodTimer> timers = new ConcurrentHashMap<>();
+    // overloads share one timer, so the histograms are keyed by name as well
+    private final Map<String, MethodTimer> timersByName = new ConcurrentHashMap<>();
+
+    /**
+     * @param slowCallMillis calls at least this slow are always logged; 0 disables
+     * @param sampleRate fraction of other calls that are logged, from 0 (none) to 1 (all)
+     */
+    @Autowired
+    public LoggingAspect(@Value("${logging.aspect.slowCallMillis:200}") long slowCallMillis,
+                         @Value("${logging.aspect.sampleRate:0}") double sampleRate) {
+        this.slowCallNanos = slowCallMillis > 0 ? TimeUnit.MILLISECONDS.toNanos(slowCallMillis) : Long.MAX_VALUE;
+        this.sampleRate = sampleRate;
+    }
+
     @Around("@within(edu.epam.fop.annotation.Logging) || @annotation(edu.epam.fop.annotation.Logging) || within(edu.epam.fop.service..*)")
     public Object logExecution(ProceedingJoinPoint pjp) throws Throwable {
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         try {
             Object result = pjp.proceed();
-            long duration = System.currentTimeMillis() - start;
-            log.info("{} executed in {} ms", pjp.getSignature(), duration);
+            record(pjp, System.nanoTime() - start);
             return result;
         } catch (Throwable ex) {
-            log.error("Exception in {}: {}", pjp.getSignature(), ex.getMessage(), ex);
+            MethodTimer timer = record(pjp, System.nanoTime() - start);
+            log.error("Exception in {}: {}", timer.name, ex.getMessage(), ex);
             throw ex;
         }
     }
-} 
\ No newline at end of file
+
+    /**
+     * Latency histograms of all methods called so far, by {@code Class.method}.
+     */
+    public Map<String, LatencyHistogram> getMethodLatencies() {
+        Map<String, LatencyHistogram> result = new TreeMap<>();
+        for (MethodTimer timer : timersByName.values()) {
+            result.put(timer.name, timer.histogram);
+        }
+        return result;
+    }
+
+    private MethodTimer record(ProceedingJoinPoint pjp, long nanos) {
+        Method method = ((MethodSignature) pjp.getSignature()).getMethod();
+        MethodTimer timer = timers.computeIfAbsent(method,
+                m -> timersByName.computeIfAbsent(m.getDeclaringClass().getSimpleName() + "." + m.getName(), MethodTimer::new));
+        timer.histogram.record(nanos);
+        if (nanos >= slowCallNanos) {
+            log.warn("Slow call: {} took {} ms", timer.name, TimeUnit.NANOSECONDS.toMillis(nanos));
+        } else if (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate && log.isInfoEnabled()) {
+            log.info("{} executed in {} ms (sampled)", timer.name, String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0));
+        }
+        return timer;
+    }
+
+    private static final class MethodTimer {
+        final String name;
+        final LatencyHistogram histogram = new LatencyHistogram();
+
+        MethodTimer(String name) {
+            this.name = name;
+        }
+    }
+}
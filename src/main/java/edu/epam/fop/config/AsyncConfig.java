@@ -0,0 +1,83 @@
+package edu.epam.fop.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.annotation.AsyncConfigurer;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Executor for {@code @Async} methods and, when it runs on virtual threads, for the controllers'
+ * {@code Callable} handlers, which covers every handler that touches the database.
+ * <p>
+ * With {@code execution.virtualThreads=true} on a Java 21+ runtime every task gets its own virtual
+ * thread, so work blocked on JDBC costs no platform thread. Virtual threads are looked up
+ * reflectively, which keeps the build on Java 11; older runtimes fall back to the platform pool
+ * with a warning. On the platform pool {@code Callable} handlers run inline on the request thread
+ * (see {@link InlineCallableReturnValueHandler}), and at most {@code execution.queueCapacity} tasks
+ * wait for a pool thread; further ones are rejected. Either way database concurrency stays bounded
+ * by the connection pool's borrow permits.
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig implements AsyncConfigurer {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncConfig.class);
+
+    @Value("${execution.virtualThreads:false}")
+    private boolean virtualThreads;
+
+    @Value("${execution.platformThreads:20}")
+    private int platformThreads;
+
+    @Value("${execution.queueCapacity:500}")
+    private int queueCapacity;
+
+    @Bean
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        if (virtualThreads) {
+            ThreadFactory factory = virtualThreadFactory("app-vt-");
+            if (factory != null) {
+                log.info("Asynchronous work runs on virtual threads");
+                return new SimpleAsyncTaskExecutor(factory);
+            }
+            log.warn("execution.virtualThreads is set, but Java {} has no virtual threads; using {} platform threads",
+                    Runtime.version().feature(), platformThreads);
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(platformThreads);
+        executor.setMaxPoolSize(platformThreads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("app-task-");
+        return executor;
+    }
+
+    @Override
+    public Executor getAsyncExecutor() {
+        return applicationTaskExecutor();
+    }
+
+    /**
+     * {@code Thread.ofVirtual().name(prefix, 0).factory()}, or {@code null} when the runtime has
+     * no (final) virtual threads.
+     */
+    static ThreadFactory virtualThreadFactory(String prefix) {
+        try {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            // Java 11-18, or 19/20 without --enable-preview
+            return null;
+        }
+    }
+}
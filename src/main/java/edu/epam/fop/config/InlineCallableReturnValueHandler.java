@@ -0,0 +1,51 @@
+package edu.epam.fop.config;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import org.springframework.web.servlet.mvc.method.annotation.ViewNameMethodReturnValueHandler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Calls a handler's {@code Callable} on the request thread and treats its result as a view name,
+ * exactly as if the handler had returned the {@code String} itself: no async dispatch, no executor.
+ * <p>
+ * Handing a request to the platform pool frees the container thread only to occupy a pool thread
+ * for the same blocking JDBC work, so without virtual threads {@link WebMvcConfig} installs this
+ * handler ahead of Spring's asynchronous {@code Callable} support. Exceptions thrown by the
+ * {@code Callable} reach the exception resolvers as they would from a synchronous handler.
+ */
+public class InlineCallableReturnValueHandler implements HandlerMethodReturnValueHandler {
+
+    private final ViewNameMethodReturnValueHandler viewNames = new ViewNameMethodReturnValueHandler();
+
+    /**
+     * Puts this handler first in the adapter's return value handlers, before the asynchronous one.
+     */
+    public static void install(RequestMappingHandlerAdapter adapter) {
+        List<HandlerMethodReturnValueHandler> handlers = new ArrayList<>();
+        handlers.add(new InlineCallableReturnValueHandler());
+        handlers.addAll(adapter.getReturnValueHandlers());
+        adapter.setReturnValueHandlers(handlers);
+    }
+
+    @Override
+    public boolean supportsReturnType(MethodParameter returnType) {
+        return Callable.class.isAssignableFrom(returnType.getParameterType());
+    }
+
+    @Override
+    public void handleReturnValue(Object returnValue, MethodParameter returnType, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest) throws Exception {
+        if (returnValue == null) {
+            mavContainer.setRequestHandled(true);
+            return;
+        }
+        viewNames.handleReturnValue(((Callable<?>) returnValue).call(), returnType, mavContainer, webRequest);
+    }
+}
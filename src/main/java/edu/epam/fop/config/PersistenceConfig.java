@@ -4,16 +4,27 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.context.annotation.PropertySource;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import edu.epam.fop.dao.ConnectionPool;
+import edu.epam.fop.dao.PoolConfig;
+import edu.epam.fop.dao.RoutingDataSource;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.TransactionAwareDataSourceProxy;
+import org.springframework.jdbc.datasource.init.DataSourceInitializer;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
 
 @Configuration
 @EnableTransactionManagement
 @PropertySource("classpath:application.properties")
+@PropertySource(value = "classpath:application-${spring.profiles.active:default}.properties", ignoreResourceNotFound = true)
 @ComponentScan(basePackages = "edu.epam.fop")
 public class PersistenceConfig {
 
@@ -29,19 +40,140 @@ public class PersistenceConfig {
     @Value("${jdbc.password}")
     private String password;
 
+    @Value("${pool.initialSize:5}")
+    private int initialSize;
+
+    @Value("${pool.maxSize:20}")
+    private int maxSize;
+
+    @Value("${pool.borrowTimeoutMillis:30000}")
+    private long borrowTimeoutMillis;
+
+    @Value("${pool.statementCacheSize:64}")
+    private int statementCacheSize;
+
+    @Value("${pool.minIdle:5}")
+    private int minIdle;
+
+    @Value("${pool.idleTimeoutMillis:600000}")
+    private long idleTimeoutMillis;
+
+    @Value("${pool.maxLifetimeMillis:1800000}")
+    private long maxLifetimeMillis;
+
+    @Value("${pool.validationTimeoutSeconds:5}")
+    private int validationTimeoutSeconds;
+
+    @Value("${pool.housekeepingPeriodMillis:30000}")
+    private long housekeepingPeriodMillis;
+
+    @Value("${db.applyIndexes:false}")
+    private boolean applyIndexes;
+
+    // comma-separated; empty = no replicas, every query goes to jdbc.url
+    @Value("${jdbc.replica.urls:}")
+    private String replicaUrls;
+
+    @Value("${jdbc.replica.username:${jdbc.username}}")
+    private String replicaUsername;
+
+    @Value("${jdbc.replica.password:${jdbc.password}}")
+    private String replicaPassword;
+
+    @Value("${routing.replicaSelection:round-robin}")
+    private String replicaSelection;
+
+    @Value("${routing.replicaBorrowTimeoutMillis:1000}")
+    private long replicaBorrowTimeoutMillis;
+
+    @Value("${routing.healthCheckMillis:5000}")
+    private long healthCheckMillis;
+
+    /**
+     * The one {@link DataSource} the application injects. Inside a transaction, declarative or
+     * through {@code JdbcTransactionManager}, every {@code getConnection()} on the thread returns
+     * the transaction's connection and closing it leaves the transaction open; outside one, each
+     * call borrows from the pool as before.
+     * <p>
+     * Underneath, the physical connection is only borrowed when the first statement runs. A
+     * transaction that never reaches the database (for example one answered from a cache) costs
+     * no checkout and no commit, and the routing decision sees the transaction's read-only flag.
+     */
+    @Bean
+    @Primary
+    public TransactionAwareDataSourceProxy dataSource() {
+        return new TransactionAwareDataSourceProxy(new LazyConnectionDataSourceProxy(routingDataSource()));
+    }
+
+    @Bean(destroyMethod = "close")
+    public ConnectionPool primaryPool() {
+        return new ConnectionPool(poolConfig(url, username, password));
+    }
+
+    /**
+     * Routes {@code @ReadReplica} reads to one pool per {@code jdbc.replica.urls} entry and
+     * everything else, including any read-write transaction, to the primary pool.
+     */
+    @Bean(destroyMethod = "close")
+    public RoutingDataSource routingDataSource() {
+        List<ConnectionPool> replicas = new ArrayList<>();
+        for (String replicaUrl : replicaUrls.split(",")) {
+            if (replicaUrl.isBlank()) {
+                continue;
+            }
+            PoolConfig config = poolConfig(replicaUrl.trim(), replicaUsername, replicaPassword);
+            config.setPoolName("replica-" + (replicas.size() + 1));
+            replicas.add(new ConnectionPool(config));
+        }
+        return new RoutingDataSource(primaryPool(), replicas, RoutingDataSource.Selection.parse(replicaSelection),
+                replicaBorrowTimeoutMillis, healthCheckMillis);
+    }
+
+    private PoolConfig poolConfig(String url, String username, String password) {
+        PoolConfig config = new PoolConfig();
+        config.setDriverClassName(driverClassName);
+        config.setUrl(url);
+        config.setUsername(username);
+        config.setPassword(password);
+        config.setInitialSize(initialSize);
+        config.setMaxSize(maxSize);
+        config.setBorrowTimeoutMillis(borrowTimeoutMillis);
+        config.setStatementCacheSize(statementCacheSize);
+        config.setMinIdle(minIdle);
+        config.setIdleTimeoutMillis(idleTimeoutMillis);
+        config.setMaxLifetimeMillis(maxLifetimeMillis);
+        config.setValidationTimeoutSeconds(validationTimeoutSeconds);
+        config.setHousekeepingPeriodMillis(housekeepingPeriodMillis);
+        return config;
+    }
+
+    /**
+     * Applies {@code db/indexes.sql} at startup when {@code db.applyIndexes} is true. The script is
+     * idempotent; failures (for example a database user without DDL rights) are logged and do not
+     * stop the application. The initializer runs outside any transaction with autocommit on, as
+     * the script's {@code CREATE INDEX CONCURRENTLY} statements require.
+     */
     @Bean
-    public DataSource dataSource() {
-        DriverManagerDataSource dataSource = new DriverManagerDataSource();
-        dataSource.setDriverClassName(driverClassName);
-        dataSource.setUrl(url);
-        dataSource.setUsername(username);
-        dataSource.setPassword(password);
-        return dataSource;
+    public DataSourceInitializer indexInitializer(DataSource dataSource) {
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator(new ClassPathResource("db/indexes.sql"));
+        populator.setContinueOnError(true);
+        DataSourceInitializer initializer = new DataSourceInitializer();
+        initializer.setDataSource(dataSource);
+        initializer.setDatabasePopulator(populator);
+        initializer.setEnabled(applyIndexes);
+        return initializer;
     }
 
+    /**
+     * Binds connections of the lazy data source behind {@link #dataSource()}, so DAOs and
+     * {@code JdbcTransactionManager} see the same binding. {@code readOnly} transactions mark
+     * the connection read-only: PostgreSQL runs them as {@code BEGIN READ ONLY}, their commit
+     * writes nothing to the WAL, and they may be routed to a replica. The pool clears the flag
+     * when the connection is returned.
+     */
     @Bean
-    public DataSourceTransactionManager transactionManager(DataSource dataSource) {
-        return new DataSourceTransactionManager(dataSource);
+    public DataSourceTransactionManager transactionManager() {
+        return new DataSourceTransactionManager(dataSource());
     }
 
     @Bean
@@ -0,0 +1,81 @@
+package edu.epam.fop.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.web.context.support.ServletContextResource;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.TemplateSpec;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.engine.TemplateManager;
+import org.thymeleaf.templatemode.TemplateMode;
+
+import java.io.Writer;
+import java.util.Locale;
+
+/**
+ * Parses every template under the view prefix once at startup, so the first request for a page
+ * finds it in the template cache instead of reading and parsing the file.
+ * <p>
+ * There is no request to render against at startup, so each template is run with an empty context
+ * and the (expected) processing errors are ignored: Thymeleaf caches a template as soon as it has
+ * been parsed, before processing it. Fragment cache entries are keyed by the including page, so
+ * fragments reached before processing stops are warmed too and the rest are parsed on first render.
+ */
+public class TemplatePrecompiler implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(TemplatePrecompiler.class);
+
+    private static final String FRAGMENTS_DIR = "fragments/";
+
+    private final ITemplateEngine templateEngine;
+    private final ResourcePatternResolver resources;
+    private final String prefix;
+    private final String suffix;
+    private final boolean enabled;
+
+    public TemplatePrecompiler(ITemplateEngine templateEngine, ResourcePatternResolver resources, String prefix,
+                               String suffix, boolean enabled) {
+        this.templateEngine = templateEngine;
+        this.resources = resources;
+        this.prefix = prefix;
+        this.suffix = suffix;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        TemplateManager templateManager = templateEngine.getConfiguration().getTemplateManager();
+        int parsed = 0;
+        try {
+            for (Resource resource : resources.getResources(prefix + "**/*" + suffix)) {
+                if (!(resource instanceof ServletContextResource)) {
+                    continue;
+                }
+                String path = ((ServletContextResource) resource).getPathWithinContext();
+                String name = path.substring(prefix.length(), path.length() - suffix.length());
+                if (name.startsWith(FRAGMENTS_DIR)) {
+                    continue;
+                }
+                try {
+                    // the template manager rather than the engine, which would log every failure as an error
+                    templateManager.parseAndProcess(new TemplateSpec(name, null, (TemplateMode) null, null),
+                            new Context(Locale.ENGLISH), Writer.nullWriter());
+                } catch (RuntimeException e) {
+                    log.trace("Template {} parsed, processing without a request failed as expected", name, e);
+                }
+                parsed++;
+            }
+        } catch (Exception e) {
+            log.warn("Could not list templates under {}, they will be parsed on first use", prefix, e);
+            return;
+        }
+        log.info("Pre-parsed {} templates in {} ms", parsed, (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -1,7 +1,15 @@
 package edu.epam.fop.config;
 
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.ResourcePropertySource;
 import org.springframework.web.servlet.support.AbstractAnnotationConfigDispatcherServletInitializer;
 
+import javax.servlet.MultipartConfigElement;
+import javax.servlet.ServletRegistration;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
 public class WebAppInitializer extends AbstractAnnotationConfigDispatcherServletInitializer {
 
     @Override
@@ -18,4 +26,36 @@ public class WebAppInitializer extends AbstractAnnotationConfigDispatcherServlet
     protected String[] getServletMappings() {
         return new String[]{"/"};
     }
-} 
\ No newline at end of file
+
+    // Upload limits for catalogue imports come from import.maxFileSize / import.maxRequestSize
+    // (bytes, -1 = unlimited); parts above 1 MB are spooled to disk
+    @Override
+    protected void customizeRegistration(ServletRegistration.Dynamic registration) {
+        StandardEnvironment env = loadProperties();
+        long maxFileSize = env.getProperty("import.maxFileSize", Long.class, 100L * 1024 * 1024);
+        long maxRequestSize = env.getProperty("import.maxRequestSize", Long.class, 101L * 1024 * 1024);
+        registration.setMultipartConfig(new MultipartConfigElement(System.getProperty("java.io.tmpdir"),
+                maxFileSize, maxRequestSize, 1024 * 1024));
+    }
+
+    /**
+     * The servlet registration happens before any application context exists, so the properties
+     * are read here with the same precedence as in {@link PersistenceConfig}: system properties,
+     * then environment variables, then the profile file, then {@code application.properties}.
+     */
+    private static StandardEnvironment loadProperties() {
+        StandardEnvironment env = new StandardEnvironment();
+        try {
+            ResourcePropertySource defaults = new ResourcePropertySource("classpath:application.properties");
+            env.getPropertySources().addLast(defaults);
+            ClassPathResource profile = new ClassPathResource(
+                    "application-" + env.getProperty("spring.profiles.active", "default") + ".properties");
+            if (profile.exists()) {
+                env.getPropertySources().addBefore(defaults.getName(), new ResourcePropertySource(profile));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return env;
+    }
+}
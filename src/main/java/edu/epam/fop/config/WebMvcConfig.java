@@ -1,21 +1,31 @@
 package edu.epam.fop.config;
 
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.context.MessageSource;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.support.PropertySourcesPlaceholderConfigurer;
 import org.springframework.context.support.ReloadableResourceBundleMessageSource;
 import org.springframework.validation.Validator;
 import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+import org.springframework.web.multipart.MultipartResolver;
+import org.springframework.web.multipart.support.StandardServletMultipartResolver;
 import org.springframework.web.servlet.LocaleResolver;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 import org.springframework.web.servlet.i18n.CookieLocaleResolver;
 import org.springframework.web.servlet.i18n.LocaleChangeInterceptor;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.beans.factory.annotation.Autowired;
 import edu.epam.fop.interceptor.RequestLoggingInterceptor;
 import org.springframework.web.servlet.config.annotation.ViewControllerRegistry;
 import org.springframework.context.ApplicationContext;
+import org.thymeleaf.cache.StandardCacheManager;
 import org.thymeleaf.spring5.SpringTemplateEngine;
 import org.thymeleaf.spring5.view.ThymeleafViewResolver;
 import org.thymeleaf.spring5.templateresolver.SpringResourceTemplateResolver;
@@ -28,13 +38,56 @@ import java.util.Locale;
 @org.springframework.context.annotation.ComponentScan("edu.epam.fop.controller")
 public class WebMvcConfig implements WebMvcConfigurer {
 
+    private static final String VIEW_PREFIX = "/WEB-INF/views/";
+    private static final String VIEW_SUFFIX = ".html";
+
+    // false (dev profile) re-reads templates on every render so edits show up without a restart
+    @Value("${thymeleaf.cache:true}")
+    private boolean templateCache;
+
+    // 0 = cached templates never expire
+    @Value("${thymeleaf.cacheTtlMillis:0}")
+    private long templateCacheTtlMillis;
+
+    @Value("${thymeleaf.cacheMaxSize:200}")
+    private int templateCacheMaxSize;
+
+    @Value("${thymeleaf.precompile:true}")
+    private boolean precompileTemplates;
+
+    // longer than pool.borrowTimeoutMillis, so a request waiting for a connection fails with the pool's error
+    @Value("${execution.asyncTimeoutMillis:60000}")
+    private long asyncTimeoutMillis;
+
     private final RequestLoggingInterceptor requestLoggingInterceptor;
     private final ApplicationContext applicationContext;
+    private final AsyncTaskExecutor applicationTaskExecutor;
 
     @Autowired
-    public WebMvcConfig(RequestLoggingInterceptor requestLoggingInterceptor, ApplicationContext applicationContext) {
+    public WebMvcConfig(RequestLoggingInterceptor requestLoggingInterceptor, ApplicationContext applicationContext,
+                        AsyncTaskExecutor applicationTaskExecutor) {
         this.requestLoggingInterceptor = requestLoggingInterceptor;
         this.applicationContext = applicationContext;
+        this.applicationTaskExecutor = applicationTaskExecutor;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        // handlers that return a Callable (every one that touches the database) run here
+        // when virtual threads are enabled, see AsyncConfig
+        configurer.setTaskExecutor(applicationTaskExecutor);
+        configurer.setDefaultTimeout(asyncTimeoutMillis);
+    }
+
+    // On the platform pool a Callable would only trade the container thread for a pool thread,
+    // so without virtual threads it runs inline on the request thread instead
+    @Bean
+    public SmartInitializingSingleton inlineCallableHandlers(RequestMappingHandlerAdapter handlerAdapter) {
+        return () -> {
+            if (applicationTaskExecutor instanceof ThreadPoolTaskExecutor) {
+                InlineCallableReturnValueHandler.install(handlerAdapter);
+            }
+        };
     }
 
     @Bean
@@ -84,32 +137,67 @@ public class WebMvcConfig implements WebMvcConfigurer {
         registry.addViewController("/login").setViewName("login");
     }
 
+    // parsed when the handler asks for the file, so an upload over import.maxFileSize reaches
+    // AdminImportController's exception handler instead of failing before any handler is chosen
+    @Bean
+    public MultipartResolver multipartResolver() {
+        StandardServletMultipartResolver resolver = new StandardServletMultipartResolver();
+        resolver.setResolveLazily(true);
+        return resolver;
+    }
+
     @Bean
     public SpringResourceTemplateResolver templateResolver() {
         SpringResourceTemplateResolver resolver = new SpringResourceTemplateResolver();
         resolver.setApplicationContext(applicationContext);
-        resolver.setPrefix("/WEB-INF/views/");
-        resolver.setSuffix(".html");
+        resolver.setPrefix(VIEW_PREFIX);
+        resolver.setSuffix(VIEW_SUFFIX);
         resolver.setTemplateMode(TemplateMode.HTML);
         resolver.setCharacterEncoding("UTF-8");
-        resolver.setCacheable(false);
+        resolver.setCacheable(templateCache);
+        resolver.setCacheTTLMs(templateCacheTtlMillis > 0 ? templateCacheTtlMillis : null);
         return resolver;
     }
 
+    @Bean
+    public StandardCacheManager templateCacheManager() {
+        StandardCacheManager cacheManager = new StandardCacheManager();
+        cacheManager.setTemplateCacheMaxSize(templateCacheMaxSize);
+        cacheManager.setTemplateCacheEnableCounters(true);
+        return cacheManager;
+    }
+
     @Bean
     public SpringTemplateEngine templateEngine() {
         SpringTemplateEngine engine = new SpringTemplateEngine();
         engine.setTemplateResolver(templateResolver());
+        engine.setCacheManager(templateCacheManager());
         engine.setEnableSpringELCompiler(true);
         return engine;
     }
 
+    @Bean
+    public TemplatePrecompiler templatePrecompiler() {
+        // nothing to warm when templates are not cached
+        return new TemplatePrecompiler(templateEngine(), applicationContext, VIEW_PREFIX, VIEW_SUFFIX,
+                templateCache && precompileTemplates);
+    }
+
     @Bean
     public ThymeleafViewResolver viewResolver() {
         ThymeleafViewResolver viewResolver = new ThymeleafViewResolver();
         viewResolver.setTemplateEngine(templateEngine());
         viewResolver.setCharacterEncoding("UTF-8");
+        // write to the response while rendering, so streamed lists reach the client as rows are read
+        viewResolver.setProducePartialOutputWhileProcessing(true);
         viewResolver.setOrder(1);
         return viewResolver;
     }
+
+    // The placeholder configurer in PersistenceConfig only serves the root context; this context
+    // creates WebMvcConfig early for its MessageSource, before any fallback resolver is registered
+    @Bean
+    public static PropertySourcesPlaceholderConfigurer propertySourcesPlaceholderConfigurer() {
+        return new PropertySourcesPlaceholderConfigurer();
+    }
 } 
\ No newline at end of file
@@ -1,5 +1,6 @@
 package edu.epam.fop.controller;
 
+import edu.epam.fop.dao.RowCursor;
 import edu.epam.fop.model.Book;
 import edu.epam.fop.service.BookService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,9 +10,12 @@ import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import javax.validation.Valid;
+import java.util.concurrent.Callable;
 
 @Controller
 public class AdminController {
@@ -25,7 +29,11 @@ public class AdminController {
 
     @GetMapping("/admin/books")
     public String listBooks(Model model) {
-        model.addAttribute("books", bookService.findAll());
+        // rows are read while the view renders; the connection is returned when the request ends
+        RowCursor<Book> books = bookService.streamAll();
+        RequestContextHolder.currentRequestAttributes()
+                .registerDestructionCallback("booksCursor", books::close, RequestAttributes.SCOPE_REQUEST);
+        model.addAttribute("books", books);
         return "admin/book-list";
     }
 
@@ -36,12 +44,14 @@ public class AdminController {
     }
 
     @PostMapping("/admin/books")
-    public String saveBook(@ModelAttribute("book") @Valid Book book, BindingResult result, RedirectAttributes redirectAttributes) {
-        if (result.hasErrors()) {
-            return "admin/book-form";
-        }
-        bookService.save(book);
-        redirectAttributes.addFlashAttribute("success", "Book added!");
-        return "redirect:/admin/books";
+    public Callable<String> saveBook(@ModelAttribute("book") @Valid Book book, BindingResult result, RedirectAttributes redirectAttributes) {
+        return () -> {
+            if (result.hasErrors()) {
+                return "admin/book-form";
+            }
+            bookService.save(book);
+            redirectAttributes.addFlashAttribute("success", "Book added!");
+            return "redirect:/admin/books";
+        };
     }
 } 
\ No newline at end of file
@@ -13,6 +13,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import javax.validation.Valid;
+import java.util.concurrent.Callable;
 
 @Controller
 @RequestMapping("/admin/books/{bookId}/copies")
@@ -29,16 +30,16 @@ public class AdminCopyController {
 
     @ModelAttribute("book")
     public Book loadBook(@PathVariable("bookId") Long bookId) {
-        return bookService.findAll().stream()
-                .filter(b -> b.getId().equals(bookId))
-                .findFirst()
-                .orElse(null);
+        // copies are loaded by the handlers that need them
+        return bookService.findById(bookId, false);
     }
 
     @GetMapping
-    public String listCopies(@ModelAttribute("book") Book book, Model model) {
-        model.addAttribute("copies", copyService.findByBookId(book.getId()));
-        return "admin/book-copy-list";
+    public Callable<String> listCopies(@ModelAttribute("book") Book book, Model model) {
+        return () -> {
+            model.addAttribute("copies", copyService.findByBookId(book.getId()));
+            return "admin/book-copy-list";
+        };
     }
 
     @GetMapping("/new")
@@ -50,22 +51,30 @@ public class AdminCopyController {
     }
 
     @PostMapping
-    public String saveCopy(@ModelAttribute("book") Book book,
-                            @ModelAttribute("copy") @Valid BookCopy copy,
-                            BindingResult result,
-                            RedirectAttributes redirectAttributes) {
-        if (result.hasErrors()) {
-            return "admin/book-copy-form";
-        }
+    public Callable<String> saveCopy(@ModelAttribute("book") Book book,
+                                     @ModelAttribute("copy") @Valid BookCopy copy,
+                                     BindingResult result,
+                                     RedirectAttributes redirectAttributes) {
+        return () -> {
+            if (result.hasErrors()) {
+                return "admin/book-copy-form";
+            }
 
-        // Duplicate inventory number validation
-        if (copyService.existsByInventoryNumber(copy.getInventoryNumber())) {
-            result.rejectValue("inventoryNumber", "duplicate", "Inventory number already exists");
-            return "admin/book-copy-form";
-        }
-        copy.setBook(book);
-        copyService.save(copy);
-        redirectAttributes.addFlashAttribute("success", "Copy added");
-        return "redirect:/admin/books/" + book.getId() + "/copies";
+            // Duplicate inventory number validation
+            if (copyService.existsByInventoryNumber(copy.getInventoryNumber())) {
+                result.rejectValue("inventoryNumber", "duplicate", "Inventory number already exists");
+                return "admin/book-copy-form";
+            }
+            copy.setBook(book);
+            try {
+                copyService.save(copy);
+            } catch (IllegalStateException e) {
+                // lost a race with a concurrent insert; the unique index rejected it
+                result.rejectValue("inventoryNumber", "duplicate", "Inventory number already exists");
+                return "admin/book-copy-form";
+            }
+            redirectAttributes.addFlashAttribute("success", "Copy added");
+            return "redirect:/admin/books/" + book.getId() + "/copies";
+        };
     }
 } 
\ No newline at end of file
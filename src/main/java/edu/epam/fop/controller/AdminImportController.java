@@ -0,0 +1,63 @@
+package edu.epam.fop.controller;
+
+import edu.epam.fop.service.CatalogImportService;
+import edu.epam.fop.service.ImportReport;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.ModelAndView;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Bulk catalogue import from CSV or JSON files; see {@link CatalogImportService} for the formats.
+ */
+@Controller
+@RequestMapping("/admin/import")
+public class AdminImportController {
+
+    private final CatalogImportService importService;
+
+    @Autowired
+    public AdminImportController(CatalogImportService importService) {
+        this.importService = importService;
+    }
+
+    @GetMapping
+    public String importForm() {
+        return "admin/import";
+    }
+
+    @PostMapping
+    public String importFile(@RequestParam("file") MultipartFile file, Model model) throws IOException {
+        if (file.isEmpty()) {
+            model.addAttribute("error", "Choose a CSV or JSON file to import");
+            return "admin/import";
+        }
+        String name = file.getOriginalFilename() != null ? file.getOriginalFilename().toLowerCase() : "";
+        boolean json = name.endsWith(".json") || "application/json".equals(file.getContentType());
+        // the part is read as a stream, never loaded into memory as a whole
+        ImportReport report;
+        try (InputStream in = file.getInputStream()) {
+            report = json ? importService.importJson(in) : importService.importCsv(in);
+        }
+        model.addAttribute("report", report);
+        model.addAttribute("fileName", file.getOriginalFilename());
+        return "admin/import";
+    }
+
+    @ExceptionHandler(MaxUploadSizeExceededException.class)
+    public ModelAndView fileTooLarge() {
+        ModelAndView mav = new ModelAndView("admin/import");
+        mav.addObject("error", "The file is larger than the import limit (import.maxFileSize)");
+        return mav;
+    }
+}
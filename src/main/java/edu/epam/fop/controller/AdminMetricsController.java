@@ -0,0 +1,257 @@
+package edu.epam.fop.controller;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import edu.epam.fop.aspect.LoggingAspect;
+import edu.epam.fop.dao.PoolStats;
+import edu.epam.fop.dao.RoutingDataSource;
+import edu.epam.fop.metrics.LatencyHistogram;
+import edu.epam.fop.metrics.RequestMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.thymeleaf.cache.ICache;
+import org.thymeleaf.cache.StandardCache;
+import org.thymeleaf.cache.StandardCacheManager;
+import org.thymeleaf.cache.TemplateCacheKey;
+import org.thymeleaf.engine.TemplateModel;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * Request, view rendering and service-call latency, and database target health and pool counters, for monitoring: Prometheus text exposition format at
+ * {@code /admin/metrics}, the same data with precomputed percentiles as JSON at
+ * {@code /admin/metrics/json}.
+ */
+@Controller
+@RequestMapping("/admin/metrics")
+public class AdminMetricsController {
+
+    // Prometheus bucket bounds; the exact histograms are folded into these on export
+    private static final double[] BOUNDS_MILLIS = {1, 2.5, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+    private static final String[] BOUND_LABELS = {"0.001", "0.0025", "0.005", "0.01", "0.025", "0.05", "0.1",
+            "0.25", "0.5", "1", "2.5", "5", "10"};
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    @Autowired
+    private RequestMetrics requestMetrics;
+
+    @Autowired
+    private LoggingAspect loggingAspect;
+
+    @Autowired
+    private StandardCacheManager templateCacheManager;
+
+    @Autowired
+    private RoutingDataSource routingDataSource;
+
+    @GetMapping
+    public void prometheus(HttpServletResponse response) throws IOException {
+        response.setContentType("text/plain; version=0.0.4; charset=utf-8");
+        PrintWriter out = response.getWriter();
+
+        out.println("# HELP http_server_requests_seconds Request latency by handler pattern.");
+        out.println("# TYPE http_server_requests_seconds histogram");
+        for (RequestMetrics.Route route : requestMetrics.getRoutes()) {
+            String labels = "method=\"" + escape(route.getMethod()) + "\",route=\"" + escape(route.getPattern()) + "\"";
+            writeHistogram(out, "http_server_requests_seconds", labels, route.getHistogram());
+        }
+
+        out.println("# HELP http_server_responses_total Responses by handler pattern and status class.");
+        out.println("# TYPE http_server_responses_total counter");
+        for (RequestMetrics.Route route : requestMetrics.getRoutes()) {
+            for (int statusClass = 1; statusClass <= 5; statusClass++) {
+                long n = route.getStatusCount(statusClass);
+                if (n > 0) {
+                    out.println("http_server_responses_total{method=\"" + escape(route.getMethod())
+                            + "\",route=\"" + escape(route.getPattern()) + "\",status=\"" + statusClass + "xx\"} " + n);
+                }
+            }
+        }
+
+        out.println("# HELP thymeleaf_render_seconds View rendering time by template.");
+        out.println("# TYPE thymeleaf_render_seconds histogram");
+        for (Map.Entry<String, LatencyHistogram> e : requestMetrics.getTemplateRenders().entrySet()) {
+            writeHistogram(out, "thymeleaf_render_seconds", "template=\"" + escape(e.getKey()) + "\"", e.getValue());
+        }
+        ICache<TemplateCacheKey, TemplateModel> templateCache = templateCacheManager.getTemplateCache();
+        if (templateCache instanceof StandardCache) {
+            StandardCache<TemplateCacheKey, TemplateModel> cache = (StandardCache<TemplateCacheKey, TemplateModel>) templateCache;
+            out.println("# HELP thymeleaf_template_cache_size Parsed templates held in the cache.");
+            out.println("# TYPE thymeleaf_template_cache_size gauge");
+            out.println("thymeleaf_template_cache_size " + cache.size());
+            out.println("# HELP thymeleaf_template_cache_requests_total Template cache lookups by result.");
+            out.println("# TYPE thymeleaf_template_cache_requests_total counter");
+            out.println("thymeleaf_template_cache_requests_total{result=\"hit\"} " + cache.getHitCount());
+            out.println("thymeleaf_template_cache_requests_total{result=\"miss\"} " + cache.getMissCount());
+        }
+
+        List<RoutingDataSource.Target> targets = routingDataSource.getTargets();
+        out.println("# HELP db_target_up Whether the database target passed its last health check.");
+        out.println("# TYPE db_target_up gauge");
+        for (RoutingDataSource.Target t : targets) {
+            out.println("db_target_up{target=\"" + escape(t.getName()) + "\"} " + (t.isHealthy() ? 1 : 0));
+        }
+        out.println("# HELP db_target_busy_connections Connections borrowed or waited for, by target.");
+        out.println("# TYPE db_target_busy_connections gauge");
+        for (RoutingDataSource.Target t : targets) {
+            out.println("db_target_busy_connections{target=\"" + escape(t.getName()) + "\"} " + t.getBusyConnections());
+        }
+        out.println("# HELP db_target_connections_total Connections handed out, by target.");
+        out.println("# TYPE db_target_connections_total counter");
+        for (RoutingDataSource.Target t : targets) {
+            out.println("db_target_connections_total{target=\"" + escape(t.getName()) + "\"} " + t.getRoutedCount());
+        }
+        writePoolStats(out, targets);
+        out.println("# HELP db_replica_failovers_total Replica reads served by the primary because no replica could take them.");
+        out.println("# TYPE db_replica_failovers_total counter");
+        out.println("db_replica_failovers_total " + targets.get(0).getFailoverCount());
+
+        out.println("# HELP library_service_call_seconds Service method latency.");
+        out.println("# TYPE library_service_call_seconds histogram");
+        for (Map.Entry<String, LatencyHistogram> e : loggingAspect.getMethodLatencies().entrySet()) {
+            writeHistogram(out, "library_service_call_seconds", "method=\"" + escape(e.getKey()) + "\"", e.getValue());
+        }
+        out.flush();
+    }
+
+    @GetMapping("/json")
+    public void json(HttpServletResponse response) throws IOException {
+        response.setContentType("application/json; charset=utf-8");
+        try (JsonGenerator json = jsonFactory.createGenerator(response.getWriter())) {
+            json.writeStartObject();
+            json.writeArrayFieldStart("requests");
+            for (RequestMetrics.Route route : requestMetrics.getRoutes()) {
+                json.writeStartObject();
+                json.writeStringField("method", route.getMethod());
+                json.writeStringField("route", route.getPattern());
+                writeSummary(json, route.getHistogram());
+                json.writeObjectFieldStart("status");
+                for (int statusClass = 1; statusClass <= 5; statusClass++) {
+                    json.writeNumberField(statusClass + "xx", route.getStatusCount(statusClass));
+                }
+                json.writeEndObject();
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+            json.writeArrayFieldStart("templates");
+            for (Map.Entry<String, LatencyHistogram> e : requestMetrics.getTemplateRenders().entrySet()) {
+                json.writeStartObject();
+                json.writeStringField("template", e.getKey());
+                writeSummary(json, e.getValue());
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+            json.writeArrayFieldStart("dataSources");
+            for (RoutingDataSource.Target t : routingDataSource.getTargets()) {
+                json.writeStartObject();
+                json.writeStringField("target", t.getName());
+                json.writeBooleanField("healthy", t.isHealthy());
+                json.writeNumberField("busyConnections", t.getBusyConnections());
+                json.writeNumberField("connections", t.getRoutedCount());
+                json.writeNumberField("failovers", t.getFailoverCount());
+                PoolStats stats = t.getPoolStats();
+                json.writeObjectFieldStart("pool");
+                json.writeNumberField("waitMillis", stats.getTotalWaitNanos() / 1e6);
+                json.writeNumberField("timeouts", stats.getTimeouts());
+                json.writeNumberField("validationFailures", stats.getValidationFailures());
+                json.writeNumberField("idleEvictions", stats.getIdleEvictions());
+                json.writeNumberField("lifetimeRetirements", stats.getLifetimeRetirements());
+                json.writeNumberField("reconciliations", stats.getReconciliations());
+                json.writeNumberField("housekeepingRuns", stats.getHousekeepingRuns());
+                json.writeNumberField("statementCacheHits", stats.getStatementCacheHits());
+                json.writeNumberField("statementCacheMisses", stats.getStatementCacheMisses());
+                json.writeNumberField("statementCacheEvictions", stats.getStatementCacheEvictions());
+                json.writeEndObject();
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+            json.writeArrayFieldStart("serviceCalls");
+            for (Map.Entry<String, LatencyHistogram> e : loggingAspect.getMethodLatencies().entrySet()) {
+                json.writeStartObject();
+                json.writeStringField("method", e.getKey());
+                writeSummary(json, e.getValue());
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+    }
+
+    // one snapshot per target, so all counters of a target come from the same moment
+    private static void writePoolStats(PrintWriter out, List<RoutingDataSource.Target> targets) {
+        Map<String, PoolStats> stats = new LinkedHashMap<>();
+        for (RoutingDataSource.Target t : targets) {
+            stats.put(escape(t.getName()), t.getPoolStats());
+        }
+        out.println("# HELP db_target_wait_seconds_total Time borrowers waited for a connection, by target.");
+        out.println("# TYPE db_target_wait_seconds_total counter");
+        for (Map.Entry<String, PoolStats> e : stats.entrySet()) {
+            out.println("db_target_wait_seconds_total{target=\"" + e.getKey() + "\"} " + e.getValue().getTotalWaitNanos() / 1e9);
+        }
+        writePoolCounter(out, stats, "db_target_borrow_timeouts_total", "Borrows that timed out, by target.",
+                PoolStats::getTimeouts);
+        writePoolCounter(out, stats, "db_target_validation_failures_total",
+                "Connections discarded because they failed validation, by target.", PoolStats::getValidationFailures);
+        writePoolCounter(out, stats, "db_target_idle_evictions_total",
+                "Idle connections closed after the idle timeout, by target.", PoolStats::getIdleEvictions);
+        writePoolCounter(out, stats, "db_target_lifetime_retirements_total",
+                "Connections retired after their maximum lifetime, by target.", PoolStats::getLifetimeRetirements);
+        writePoolCounter(out, stats, "db_target_reconciliations_total",
+                "Corrections of the pool's connection count, by target.", PoolStats::getReconciliations);
+        writePoolCounter(out, stats, "db_target_housekeeping_runs_total", "Pool housekeeping runs, by target.",
+                PoolStats::getHousekeepingRuns);
+        out.println("# HELP db_target_statement_cache_requests_total Prepared statement cache lookups by target and result.");
+        out.println("# TYPE db_target_statement_cache_requests_total counter");
+        for (Map.Entry<String, PoolStats> e : stats.entrySet()) {
+            out.println("db_target_statement_cache_requests_total{target=\"" + e.getKey() + "\",result=\"hit\"} "
+                    + e.getValue().getStatementCacheHits());
+            out.println("db_target_statement_cache_requests_total{target=\"" + e.getKey() + "\",result=\"miss\"} "
+                    + e.getValue().getStatementCacheMisses());
+        }
+        writePoolCounter(out, stats, "db_target_statement_cache_evictions_total",
+                "Prepared statements evicted from the cache, by target.", PoolStats::getStatementCacheEvictions);
+    }
+
+    private static void writePoolCounter(PrintWriter out, Map<String, PoolStats> stats, String name, String help,
+                                         ToLongFunction<PoolStats> counter) {
+        out.println("# HELP " + name + " " + help);
+        out.println("# TYPE " + name + " counter");
+        for (Map.Entry<String, PoolStats> e : stats.entrySet()) {
+            out.println(name + "{target=\"" + e.getKey() + "\"} " + counter.applyAsLong(e.getValue()));
+        }
+    }
+
+    private static void writeHistogram(PrintWriter out, String name, String labels, LatencyHistogram histogram) {
+        long[] cumulative = histogram.cumulativeCounts(BOUNDS_MILLIS);
+        for (int i = 0; i < cumulative.length; i++) {
+            out.println(name + "_bucket{" + labels + ",le=\"" + BOUND_LABELS[i] + "\"} " + cumulative[i]);
+        }
+        // count last, so +Inf is never below a finite bucket recorded in the meantime
+        long count = Math.max(histogram.getCount(), cumulative.length > 0 ? cumulative[cumulative.length - 1] : 0);
+        out.println(name + "_bucket{" + labels + ",le=\"+Inf\"} " + count);
+        out.println(name + "_sum{" + labels + "} " + histogram.getSumMillis() / 1000);
+        out.println(name + "_count{" + labels + "} " + count);
+    }
+
+    private static void writeSummary(JsonGenerator json, LatencyHistogram histogram) throws IOException {
+        json.writeNumberField("count", histogram.getCount());
+        json.writeNumberField("avgMillis", histogram.getAverageMillis());
+        json.writeNumberField("p50Millis", histogram.getP50Millis());
+        json.writeNumberField("p95Millis", histogram.getP95Millis());
+        json.writeNumberField("p99Millis", histogram.getP99Millis());
+        json.writeNumberField("maxMillis", histogram.getMaxMillis());
+    }
+
+    private static String escape(String label) {
+        return label.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -1,5 +1,9 @@
 package edu.epam.fop.controller;
 
+import edu.epam.fop.aspect.LoggingAspect;
+import edu.epam.fop.dao.cache.CachingBookCopyDao;
+import edu.epam.fop.dao.cache.CachingBookDao;
+import edu.epam.fop.security.CalibratedPasswordEncoder;
 import edu.epam.fop.service.ReportService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
@@ -7,6 +11,9 @@ import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 
+import java.util.List;
+import java.util.concurrent.Callable;
+
 @Controller
 @RequestMapping("/admin/reports")
 public class AdminReportController {
@@ -14,10 +21,27 @@ public class AdminReportController {
     @Autowired
     private ReportService reportService;
 
+    @Autowired
+    private CachingBookDao bookCache;
+
+    @Autowired
+    private CachingBookCopyDao copyCache;
+
+    @Autowired
+    private CalibratedPasswordEncoder passwordEncoder;
+
+    @Autowired
+    private LoggingAspect loggingAspect;
+
     @GetMapping
-    public String dashboard(Model model){
-        model.addAttribute("issued", reportService.totalIssued());
-        model.addAttribute("top", reportService.mostRequested());
-        return "admin/report";
+    public Callable<String> dashboard(Model model){
+        return () -> {
+            model.addAttribute("issued", reportService.totalIssued());
+            model.addAttribute("top", reportService.mostRequested());
+            model.addAttribute("caches", List.of(bookCache.getStats(), copyCache.getStats()));
+            model.addAttribute("hashing", passwordEncoder);
+            model.addAttribute("latencies", loggingAspect.getMethodLatencies());
+            return "admin/report";
+        };
     }
 } 
\ No newline at end of file
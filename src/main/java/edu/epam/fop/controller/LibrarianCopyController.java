@@ -1,5 +1,6 @@
 package edu.epam.fop.controller;
 
+import edu.epam.fop.dao.RowCursor;
 import edu.epam.fop.model.BookCopy;
 import edu.epam.fop.service.BookCopyService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -7,8 +8,8 @@ import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
-
-import java.util.List;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 @Controller
 @RequestMapping("/librarian/copies")
@@ -23,7 +24,10 @@ public class LibrarianCopyController {
 
     @GetMapping
     public String listAll(Model model) {
-        List<BookCopy> copies = copyService.findAll();
+        // rows are read while the view renders; the connection is returned when the request ends
+        RowCursor<BookCopy> copies = copyService.streamAll();
+        RequestContextHolder.currentRequestAttributes()
+                .registerDestructionCallback("copiesCursor", copies::close, RequestAttributes.SCOPE_REQUEST);
         model.addAttribute("copies", copies);
         return "librarian/copy-list";
     }
@@ -2,10 +2,9 @@ package edu.epam.fop.controller;
 
 import edu.epam.fop.model.Order;
 import edu.epam.fop.service.OrderService;
-import edu.epam.fop.dao.UserDao;
+import edu.epam.fop.service.CursorPage;
+import edu.epam.fop.security.CustomUserDetails;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -13,47 +12,44 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestParam;
 
-import java.util.List;
+import java.util.concurrent.Callable;
 
 @Controller
 public class OrderController {
 
     private final OrderService orderService;
-    private final UserDao userDao;
 
     @Autowired
-    public OrderController(OrderService orderService, UserDao userDao) {
+    public OrderController(OrderService orderService) {
         this.orderService = orderService;
-        this.userDao = userDao;
     }
 
     @GetMapping("/orders/history")
-    public String myHistory(@RequestParam(value = "page", defaultValue = "0") int page,
-                            @RequestParam(value = "size", defaultValue = "10") int size,
-                            Model model) {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String username = auth.getName();
-        edu.epam.fop.model.User user;
-        try { user = userDao.findByUsername(username);} catch(Exception e){ throw new RuntimeException(e);}
-        if (user == null) {
-            return "redirect:/";
-        }
-        List<Order> orders = orderService.findByUserPaged(user, page, size);
-        model.addAttribute("orders", orders);
-        model.addAttribute("page", page);
-        model.addAttribute("size", size);
-        return "order/history";
+    public Callable<String> myHistory(@RequestParam(value = "after", required = false) String after,
+                                      @RequestParam(value = "size", defaultValue = "10") int size,
+                                      Model model) {
+        int pageSize = CursorPage.pageSize(size, 10);
+        return () -> {
+            CustomUserDetails principal = CustomUserDetails.current();
+            if (principal == null) {
+                return "redirect:/";
+            }
+            CursorPage<Order> page = orderService.findByUserPage(principal.toUser(), after, pageSize);
+            model.addAttribute("orders", page.getItems());
+            model.addAttribute("nextCursor", page.getNextCursor());
+            model.addAttribute("size", pageSize);
+            return "order/history";
+        };
     }
 
     @PostMapping("/orders/{id}/cancel")
-    public String cancelOrder(@PathVariable Long id) {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String username = auth.getName();
-        edu.epam.fop.model.User user;
-        try { user = userDao.findByUsername(username);} catch(Exception e){ throw new RuntimeException(e);}
-        if (user != null) {
-            orderService.cancelOrder(id, user);
-        }
-        return "redirect:/orders/history";
+    public Callable<String> cancelOrder(@PathVariable Long id) {
+        return () -> {
+            CustomUserDetails principal = CustomUserDetails.current();
+            if (principal != null) {
+                orderService.cancelOrder(id, principal.toUser());
+            }
+            return "redirect:/orders/history";
+        };
     }
 } 
\ No newline at end of file
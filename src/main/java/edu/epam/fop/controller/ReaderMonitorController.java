@@ -1,18 +1,16 @@
 package edu.epam.fop.controller;
 
-import edu.epam.fop.model.Order;
-import edu.epam.fop.model.OrderStatus;
-import edu.epam.fop.model.User;
+import edu.epam.fop.model.ReaderActivity;
+import edu.epam.fop.service.CursorPage;
 import edu.epam.fop.service.OrderService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 
-import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.Callable;
 
 @Controller
 @RequestMapping("/librarian/readers")
@@ -26,11 +24,16 @@ public class ReaderMonitorController {
     }
 
     @GetMapping
-    public String list(Model model){
-        List<Order> active = orderService.findByStatus(OrderStatus.PENDING);
-        active.addAll(orderService.findByStatus(OrderStatus.ISSUED));
-        Map<User,List<Order>> map = active.stream().collect(Collectors.groupingBy(Order::getUser));
-        model.addAttribute("map", map);
-        return "librarian/reader-list";
+    public Callable<String> list(@RequestParam(value = "after", required = false) String after,
+                                 @RequestParam(value = "size", defaultValue = "20") int size,
+                                 Model model){
+        int pageSize = CursorPage.pageSize(size, 20);
+        return () -> {
+            CursorPage<ReaderActivity> readers = orderService.findActiveReaders(after, pageSize);
+            model.addAttribute("readers", readers.getItems());
+            model.addAttribute("nextCursor", readers.getNextCursor());
+            model.addAttribute("size", pageSize);
+            return "librarian/reader-list";
+        };
     }
-} 
\ No newline at end of file
+}
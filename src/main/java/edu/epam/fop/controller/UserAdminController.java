@@ -1,6 +1,8 @@
 package edu.epam.fop.controller;
 
 import edu.epam.fop.dao.RoleDao;
+import edu.epam.fop.model.User;
+import edu.epam.fop.service.CursorPage;
 import edu.epam.fop.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
@@ -12,6 +14,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
 import java.util.List;
+import java.util.concurrent.Callable;
 
 @Controller
 @RequestMapping("/admin/users")
@@ -21,40 +24,50 @@ public class UserAdminController {
     @Autowired private RoleDao roleDao;
 
     @GetMapping
-    public String list(@RequestParam(value = "page", defaultValue = "0") int page,
-                       @RequestParam(value = "size", defaultValue = "10") int size,
-                       Model model) {
-        model.addAttribute("users", userService.findPaged(page, size));
-        model.addAttribute("page", page);
-        model.addAttribute("size", size);
-        return "admin/user-list";
+    public Callable<String> list(@RequestParam(value = "after", required = false) String after,
+                                 @RequestParam(value = "size", defaultValue = "10") int size,
+                                 Model model) {
+        int pageSize = CursorPage.pageSize(size, 10);
+        return () -> {
+            CursorPage<User> page = userService.findPage(after, pageSize);
+            model.addAttribute("users", page.getItems());
+            model.addAttribute("nextCursor", page.getNextCursor());
+            model.addAttribute("size", pageSize);
+            return "admin/user-list";
+        };
     }
 
     @GetMapping("/new")
-    public String form(Model model){
-        try {
+    public Callable<String> form(Model model){
+        return () -> {
             model.addAttribute("roles", roleDao.findAll());
-        } catch(Exception e){ throw new RuntimeException(e);}
-        return "admin/user-form";
+            return "admin/user-form";
+        };
     }
 
     @PostMapping
-    public String create(@RequestParam String username,
-                         @RequestParam String password,
-                         @RequestParam List<String> roles){
-        userService.create(username,password,roles);
-        return "redirect:/admin/users";
+    public Callable<String> create(@RequestParam String username,
+                                   @RequestParam String password,
+                                   @RequestParam List<String> roles){
+        return () -> {
+            userService.create(username,password,roles);
+            return "redirect:/admin/users";
+        };
     }
 
     @PostMapping("/{id}/block")
-    public String block(@PathVariable Long id){
-        userService.toggleBlock(id);
-        return "redirect:/admin/users";
+    public Callable<String> block(@PathVariable Long id){
+        return () -> {
+            userService.toggleBlock(id);
+            return "redirect:/admin/users";
+        };
     }
 
     @PostMapping("/{id}/delete")
-    public String delete(@PathVariable Long id){
-        userService.delete(id);
-        return "redirect:/admin/users";
+    public Callable<String> delete(@PathVariable Long id){
+        return () -> {
+            userService.delete(id);
+            return "redirect:/admin/users";
+        };
     }
 } 
\ No newline at end of file
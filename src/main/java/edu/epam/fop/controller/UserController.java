@@ -10,6 +10,8 @@ import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.util.concurrent.Callable;
+
 @Controller
 public class UserController {
 
@@ -27,15 +29,17 @@ public class UserController {
     }
 
     @PostMapping("/register")
-    public String register(@ModelAttribute("userForm") UserForm form, RedirectAttributes redirectAttributes) {
-        try {
-            userService.registerUser(form.getUsername(), form.getPassword());
-            redirectAttributes.addFlashAttribute("success", "Registration successful!");
-            return "redirect:/";
-        } catch (Exception e) {
-            redirectAttributes.addFlashAttribute("error", e.getMessage());
-            return "redirect:/register";
-        }
+    public Callable<String> register(@ModelAttribute("userForm") UserForm form, RedirectAttributes redirectAttributes) {
+        return () -> {
+            try {
+                userService.registerUser(form.getUsername(), form.getPassword());
+                redirectAttributes.addFlashAttribute("success", "Registration successful!");
+                return "redirect:/";
+            } catch (Exception e) {
+                redirectAttributes.addFlashAttribute("error", e.getMessage());
+                return "redirect:/register";
+            }
+        };
     }
 
     @GetMapping("/login")
@@ -3,18 +3,51 @@ package edu.epam.fop.dao;
 import edu.epam.fop.model.BookCopy;
 
 import java.sql.SQLException;
+import java.util.Collection;
 import java.util.List;
 
 public interface BookCopyDao {
 
     Long save(BookCopy copy) throws SQLException;
 
+    // Inserts all copies with one JDBC batch
+    void saveAll(List<BookCopy> copies) throws SQLException;
+
     BookCopy findById(Long id) throws SQLException;
 
     List<BookCopy> findAll() throws SQLException;
 
+    /**
+     * All copies ordered by id, each with its book title and, when it is issued, the current order
+     * with the borrower's username. Rows are read lazily; the caller must close the cursor.
+     */
+    RowCursor<BookCopy> streamAll() throws SQLException;
+
+    // Copies with the given ids in a single query; unknown ids are skipped
+    List<BookCopy> findByIds(Collection<Long> ids) throws SQLException;
+
     List<BookCopy> findByBookId(Long bookId) throws SQLException;
 
+    // Copies of all given books in a single query; empty input yields an empty list
+    List<BookCopy> findByBookIds(Collection<Long> bookIds) throws SQLException;
+
+    BookCopy findByInventoryNumber(String inventoryNumber) throws SQLException;
+
+    boolean existsByInventoryNumber(String inventoryNumber) throws SQLException;
+
+    // Inventory numbers only, without mapping whole copies
+    List<String> findAllInventoryNumbers() throws SQLException;
+
+    // Whether a unique index or constraint covers inventory_number alone; only then are duplicates impossible
+    boolean hasUniqueInventoryNumber() throws SQLException;
+
+    /**
+     * Atomically moves one AVAILABLE copy of the book to RESERVED in a single statement.
+     * Concurrent callers, including ones on other nodes, never claim the same copy.
+     * @return the claimed copy, or {@code null} if no copy is available
+     */
+    BookCopy reserveAvailable(Long bookId) throws SQLException;
+
     void update(BookCopy copy) throws SQLException;
 
     void deleteById(Long id) throws SQLException;
@@ -3,17 +3,33 @@ package edu.epam.fop.dao;
 import edu.epam.fop.model.Book;
 
 import java.sql.SQLException;
+import java.util.Collection;
 import java.util.List;
 
 public interface BookDao {
 
     Long save(Book book) throws SQLException;
 
+    /**
+     * Inserts all books with one JDBC batch and assigns their generated ids.
+     */
+    void saveAll(List<Book> books) throws SQLException;
+
     Book findById(Long id) throws SQLException;
 
     List<Book> findAll() throws SQLException;
 
-    List<Book> findPaged(int offset, int limit, String titleFilter, String authorFilter) throws SQLException;
+    // All books ordered by id, read lazily; the caller must close the cursor
+    RowCursor<Book> streamAll() throws SQLException;
+
+    // Books with the given ids in a single query; unknown ids are skipped
+    List<Book> findByIds(Collection<Long> ids) throws SQLException;
+
+    /**
+     * Keyset page of books in id order: up to {@code limit} books with an id greater than
+     * {@code afterId} ({@code null} = from the first book) matching the optional filters.
+     */
+    List<Book> findAfter(Long afterId, int limit, String titleFilter, String authorFilter) throws SQLException;
 
     void update(Book book) throws SQLException;
 
@@ -0,0 +1,177 @@
+package edu.epam.fop.dao;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntConsumer;
+
+/**
+ * Lock-free container of {@link PoolEntry} objects.
+ * <p>
+ * A borrower first tries the entry its thread used last, then scans the shared list, and only
+ * then parks on a fair {@link SynchronousQueue} where returning threads hand entries over
+ * directly. Whenever a borrower has to wait, the bag asks the pool (through {@code addItemRequest})
+ * to create a connection in the background.
+ */
+final class ConcurrentBag {
+
+    private final CopyOnWriteArrayList<PoolEntry> sharedList = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<WeakReference<PoolEntry>> lastUsed = new ThreadLocal<>();
+    private final SynchronousQueue<PoolEntry> handoffQueue = new SynchronousQueue<>(true);
+    private final AtomicInteger waiters = new AtomicInteger();
+    private final IntConsumer addItemRequest;
+    private volatile boolean closed;
+
+    ConcurrentBag(IntConsumer addItemRequest) {
+        this.addItemRequest = addItemRequest;
+    }
+
+    /**
+     * Claims an idle entry, waiting up to the given timeout for one to be returned or created.
+     * @return the claimed entry or {@code null} on timeout
+     */
+    PoolEntry borrow(long timeout, TimeUnit unit) throws InterruptedException {
+        WeakReference<PoolEntry> ref = lastUsed.get();
+        if (ref != null) {
+            PoolEntry entry = ref.get();
+            if (entry != null && entry.compareAndSet(PoolEntry.STATE_NOT_IN_USE, PoolEntry.STATE_IN_USE)) {
+                return entry;
+            }
+        }
+
+        int waiting = waiters.incrementAndGet();
+        try {
+            for (PoolEntry entry : sharedList) {
+                if (entry.compareAndSet(PoolEntry.STATE_NOT_IN_USE, PoolEntry.STATE_IN_USE)) {
+                    // we may have stolen an entry another waiter was counting on
+                    if (waiting > 1) {
+                        addItemRequest.accept(waiting - 1);
+                    }
+                    return entry;
+                }
+            }
+
+            addItemRequest.accept(waiting);
+
+            long remaining = unit.toNanos(timeout);
+            do {
+                long start = System.nanoTime();
+                PoolEntry entry = handoffQueue.poll(remaining, TimeUnit.NANOSECONDS);
+                if (entry == null || entry.compareAndSet(PoolEntry.STATE_NOT_IN_USE, PoolEntry.STATE_IN_USE)) {
+                    return entry;
+                }
+                remaining -= System.nanoTime() - start;
+            } while (remaining > 10_000);
+
+            return null;
+        } finally {
+            waiters.decrementAndGet();
+        }
+    }
+
+    /**
+     * Returns a borrowed entry. If somebody is waiting the entry is handed to them directly,
+     * otherwise it is remembered as this thread's preferred entry.
+     */
+    void requite(PoolEntry entry) {
+        entry.setState(PoolEntry.STATE_NOT_IN_USE);
+
+        for (int i = 0; waiters.get() > 0; i++) {
+            if (entry.getState() != PoolEntry.STATE_NOT_IN_USE || handoffQueue.offer(entry)) {
+                return;
+            } else if ((i & 0xff) == 0xff) {
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(10));
+            } else {
+                Thread.yield();
+            }
+        }
+
+        lastUsed.set(new WeakReference<>(entry));
+    }
+
+    /**
+     * Adds a freshly created entry, offering it to a waiting borrower first.
+     */
+    void add(PoolEntry entry) {
+        if (closed) {
+            throw new IllegalStateException("Bag has been closed");
+        }
+        sharedList.add(entry);
+
+        while (waiters.get() > 0 && entry.getState() == PoolEntry.STATE_NOT_IN_USE && !handoffQueue.offer(entry)) {
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Removes an entry that is either borrowed or reserved by the caller.
+     * @return {@code false} if the entry was not owned by the caller
+     */
+    boolean remove(PoolEntry entry) {
+        if (!entry.compareAndSet(PoolEntry.STATE_IN_USE, PoolEntry.STATE_REMOVED)
+                && !entry.compareAndSet(PoolEntry.STATE_RESERVED, PoolEntry.STATE_REMOVED)
+                && !closed) {
+            return false;
+        }
+        return sharedList.remove(entry);
+    }
+
+    /**
+     * Marks an idle entry as reserved so that no borrower can take it.
+     */
+    boolean reserve(PoolEntry entry) {
+        return entry.compareAndSet(PoolEntry.STATE_NOT_IN_USE, PoolEntry.STATE_RESERVED);
+    }
+
+    /**
+     * Releases a reservation made with {@link #reserve(PoolEntry)}, handing the entry to a waiter if any.
+     */
+    void unreserve(PoolEntry entry) {
+        if (entry.compareAndSet(PoolEntry.STATE_RESERVED, PoolEntry.STATE_NOT_IN_USE)) {
+            while (waiters.get() > 0 && entry.getState() == PoolEntry.STATE_NOT_IN_USE && !handoffQueue.offer(entry)) {
+                Thread.yield();
+            }
+        }
+    }
+
+    List<PoolEntry> values(int state) {
+        List<PoolEntry> list = new ArrayList<>();
+        for (PoolEntry entry : sharedList) {
+            if (entry.getState() == state) {
+                list.add(entry);
+            }
+        }
+        return list;
+    }
+
+    List<PoolEntry> values() {
+        return new ArrayList<>(sharedList);
+    }
+
+    int getCount(int state) {
+        int count = 0;
+        for (PoolEntry entry : sharedList) {
+            if (entry.getState() == state) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    int size() {
+        return sharedList.size();
+    }
+
+    int getWaitingThreadCount() {
+        return waiters.get();
+    }
+
+    void close() {
+        closed = true;
+    }
+}
@@ -1,151 +1,501 @@
 package edu.epam.fop.dao;
 
-import java.io.IOException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
-import java.util.Properties;
-import java.util.concurrent.BlockingQueue;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
 
 /**
- * A very small, self-contained JDBC connection pool.
+ * A small, self-contained JDBC connection pool exposed as a {@link DataSource}.
  * <p>
- * It pulls database and pool settings from the same <code>db.properties</code> file:
+ * The pool is a regular Spring bean (see {@code PersistenceConfig}) behind the
+ * {@link RoutingDataSource}. It knows nothing about transactions: binding a connection to the
+ * current unit of work is left to Spring's transaction synchronization. Settings come from {@link PoolConfig}:
  * <ul>
- *     <li>jdbc.driverClassName</li>
- *     <li>jdbc.url</li>
- *     <li>jdbc.username</li>
- *     <li>jdbc.password</li>
- *     <li>pool.initialSize (optional, default 5)</li>
- *     <li>pool.maxSize (optional, default 20)</li>
- *     <li>pool.borrowTimeoutMillis (optional, default 30000)</li>
+ *     <li>pool.initialSize (default 5) - connections opened in the background at startup</li>
+ *     <li>pool.maxSize (default 20)</li>
+ *     <li>pool.borrowTimeoutMillis (default 30000)</li>
+ *     <li>pool.statementCacheSize (default 64, 0 disables) - prepared statements cached per connection</li>
+ *     <li>pool.minIdle (default 5) - idle connections the housekeeper keeps open</li>
+ *     <li>pool.idleTimeoutMillis (default 600000) - idle connections above minIdle are closed after this</li>
+ *     <li>pool.maxLifetimeMillis (default 1800000) - connections are retired after this age</li>
+ *     <li>pool.validationTimeoutSeconds (default 5) - timeout for {@link Connection#isValid(int)}</li>
+ *     <li>pool.housekeepingPeriodMillis (default 30000)</li>
  * </ul>
  * <p>
- * The implementation is blocking: if the pool is exhausted and maxSize has been reached,
- * {@link #getConnection()} waits until another thread returns a connection or the timeout expires.
+ * Borrowing and returning are lock-free (see {@link ConcurrentBag}). New physical connections
+ * are opened by a dedicated background thread, never while holding a lock, so a slow TCP
+ * handshake only delays the thread that actually needs the extra connection. If the pool is
+ * exhausted, {@link #getConnection()} waits until another thread returns a connection, a new one
+ * is created, or the timeout expires.
+ * <p>
+ * Borrowers are admitted through a fair semaphore with one permit per connection, so at most
+ * {@code maxSize} threads compete for entries and everybody else queues in arrival order. With
+ * many (e.g. virtual) threads this keeps the waiting cheap and the bag's scan-and-handoff path
+ * short. No monitor locks are held anywhere on the borrow or return path.
+ * <p>
+ * A background housekeeper validates idle connections with {@link Connection#isValid(int)},
+ * retires connections past their idle timeout or maximum lifetime, tops the pool up to
+ * {@code minIdle} and reconciles the connection count. A connection that has been idle for more
+ * than {@value #ALIVE_BYPASS_WINDOW_MS} ms is also validated when it is borrowed, so a connection
+ * silently dropped by the server or a firewall is replaced instead of being handed out.
  */
-public final class ConnectionPool {
+public final class ConnectionPool implements DataSource, AutoCloseable {
 
-    private static final String PROPERTIES_FILE = "/application.properties";
-    private static final Properties props = new Properties();
+    private static final Logger log = LoggerFactory.getLogger(ConnectionPool.class);
 
-    private static final BlockingQueue<Connection> idleConnections;
-    private static final AtomicInteger totalConnections = new AtomicInteger();
-    private static final int MAX_SIZE;
-    private static final long BORROW_TIMEOUT_MILLIS;
+    /** Connections used more recently than this are not re-validated on borrow. */
+    static final long ALIVE_BYPASS_WINDOW_MS = 500;
 
-    private static final ThreadLocal<Connection> TX_CONNECTION = new ThreadLocal<>();
+    private final PoolConfig config;
+    private final ConcurrentBag bag;
+    private final ThreadPoolExecutor connectionCreator;
+    private final ScheduledExecutorService housekeeper;
 
-    static {
-        try {
-            props.load(ConnectionPool.class.getResourceAsStream(PROPERTIES_FILE));
-            // Resolve placeholders like ${ENV:default}
-            props.replaceAll((k, v) -> resolvePlaceholder(String.valueOf(v)));
-            Class.forName(props.getProperty("jdbc.driverClassName"));
-        } catch (IOException | ClassNotFoundException e) {
-            throw new ExceptionInInitializerError("Failed to load DB properties or driver: " + e);
-        }
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final AtomicInteger pendingCreations = new AtomicInteger();
+    private final AtomicInteger connecting = new AtomicInteger();
+
+    private final LongAdder createdCount = new LongAdder();
+    private final LongAdder closedCount = new LongAdder();
+    private final LongAdder borrowCount = new LongAdder();
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LongAdder borrowWaitNanos = new LongAdder();
+    private final LongAdder statementCacheHits = new LongAdder();
+    private final LongAdder statementCacheMisses = new LongAdder();
+    private final LongAdder statementCacheEvictions = new LongAdder();
+    private final LongAdder validationFailures = new LongAdder();
+    private final LongAdder idleEvictions = new LongAdder();
+    private final LongAdder lifetimeRetirements = new LongAdder();
+    private final LongAdder reconciliations = new LongAdder();
+    private final LongAdder housekeepingRuns = new LongAdder();
 
-        int initial = Integer.parseInt(props.getProperty("pool.initialSize", "5").trim());
-        MAX_SIZE = Integer.parseInt(props.getProperty("pool.maxSize", "20").trim());
-        BORROW_TIMEOUT_MILLIS = Long.parseLong(props.getProperty("pool.borrowTimeoutMillis", "30000").trim());
+    // one permit per connection that may be borrowed; returned in release()
+    private final Semaphore borrowPermits;
 
-        idleConnections = new LinkedBlockingQueue<>(MAX_SIZE);
+    private volatile SQLException lastCreateFailure;
+    private volatile boolean shutdown;
+    private volatile int loginTimeout;
+    // only touched by the housekeeper thread
+    private int lastDrift;
 
-        for (int i = 0; i < initial; i++) {
+    public ConnectionPool(PoolConfig config) {
+        config.validate();
+        this.config = config;
+        if (config.getDriverClassName() != null) {
             try {
-                idleConnections.offer(createNewConnection());
-            } catch (SQLException e) {
-                throw new ExceptionInInitializerError("Failed to create initial connections: " + e);
+                Class.forName(config.getDriverClassName());
+            } catch (ClassNotFoundException e) {
+                throw new IllegalStateException("JDBC driver not found: " + config.getDriverClassName(), e);
             }
         }
-    }
 
-    private ConnectionPool() { }
+        this.bag = new ConcurrentBag(this::requestConnections);
+        this.borrowPermits = new Semaphore(config.getMaxSize(), true);
+        this.connectionCreator = new ThreadPoolExecutor(1, 1, 5, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(config.getMaxSize()),
+                r -> {
+                    Thread t = new Thread(r, config.getPoolName() + "-creator");
+                    t.setDaemon(true);
+                    return t;
+                },
+                (r, executor) -> pendingCreations.decrementAndGet());
+        this.connectionCreator.allowCoreThreadTimeOut(true);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, config.getPoolName() + "-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        this.housekeeper.scheduleWithFixedDelay(this::housekeep,
+                config.getHousekeepingPeriodMillis(), config.getHousekeepingPeriodMillis(), TimeUnit.MILLISECONDS);
+
+        requestConnections(Math.max(config.getInitialSize(), config.getMinIdle()));
+        log.info("{} started (initialSize={}, maxSize={})", config.getPoolName(), config.getInitialSize(), config.getMaxSize());
+    }
 
     /**
      * Borrows a connection from the pool. Blocks up to {@code pool.borrowTimeoutMillis} if necessary.
      * @throws SQLException if timeout occurs or connection cannot be created.
      */
-    public static Connection getConnection() throws SQLException {
-        // If current thread has an active transactional connection – return it (no wrapping to avoid premature close)
-        Connection txConn = TX_CONNECTION.get();
-        if(txConn != null){
-            return txConn;
-        }
+    @Override
+    public Connection getConnection() throws SQLException {
+        return getConnection(config.getBorrowTimeoutMillis(), TimeUnit.MILLISECONDS);
+    }
 
-        Connection conn = idleConnections.poll();
-        if (conn != null && isConnectionValid(conn)) {
-            return wrap(conn);
+    /**
+     * Borrows a connection, waiting at most the given time instead of {@code pool.borrowTimeoutMillis}.
+     * @throws SQLTransientConnectionException if every connection stayed in use until the timeout
+     */
+    Connection getConnection(long timeout, TimeUnit unit) throws SQLException {
+        if (shutdown) {
+            throw new SQLException(config.getPoolName() + " has been shut down");
         }
 
-        // No idle connection, try to create new if we have capacity
-        if (totalConnections.get() < MAX_SIZE) {
-            synchronized (ConnectionPool.class) {
-                if (totalConnections.get() < MAX_SIZE) {
-                    return wrap(createNewConnection());
+        long start = System.nanoTime();
+        long deadline = start + unit.toNanos(timeout);
+        boolean permitted = false;
+        try {
+            long remaining = deadline - start;
+            permitted = borrowPermits.tryAcquire(remaining, TimeUnit.NANOSECONDS);
+            remaining = deadline - System.nanoTime();
+            while (permitted && remaining > 0) {
+                PoolEntry entry = bag.borrow(remaining, TimeUnit.NANOSECONDS);
+                if (entry == null) {
+                    break;
                 }
+                if (isUsable(entry)) {
+                    borrowWaitNanos.add(System.nanoTime() - start);
+                    borrowCount.increment();
+                    entry.lastAccessed = System.currentTimeMillis();
+                    // the permit now belongs to the borrowed connection
+                    permitted = false;
+                    return new PooledConnection(this, entry);
+                }
+                closeEntry(entry);
+                remaining = deadline - System.nanoTime();
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", ie);
+        } finally {
+            if (permitted) {
+                borrowPermits.release();
+            }
+        }
+
+        timeoutCount.increment();
+        SQLException createFailure = lastCreateFailure;
+        if (createFailure != null) {
+            throw new SQLException("Timeout waiting for a database connection, opening one failed (" + getStats() + ")",
+                    createFailure);
+        }
+        // every connection is in use: the database is busy, not unreachable
+        throw new SQLTransientConnectionException("Timeout waiting for a free database connection (" + getStats() + ")");
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Per-call credentials are not supported by " + config.getPoolName());
+    }
+
+    /**
+     * Returns a snapshot of the pool gauges and counters.
+     */
+    public PoolStats getStats() {
+        return PoolStats.builder()
+                .total(totalConnections.get())
+                .active(bag.getCount(PoolEntry.STATE_IN_USE))
+                .idle(bag.getCount(PoolEntry.STATE_NOT_IN_USE))
+                .waiting(borrowPermits.getQueueLength() + bag.getWaitingThreadCount())
+                .created(createdCount.sum())
+                .closed(closedCount.sum())
+                .borrowed(borrowCount.sum())
+                .timeouts(timeoutCount.sum())
+                .totalWaitNanos(borrowWaitNanos.sum())
+                .statementCacheHits(statementCacheHits.sum())
+                .statementCacheMisses(statementCacheMisses.sum())
+                .statementCacheEvictions(statementCacheEvictions.sum())
+                .validationFailures(validationFailures.sum())
+                .idleEvictions(idleEvictions.sum())
+                .lifetimeRetirements(lifetimeRetirements.sum())
+                .reconciliations(reconciliations.sum())
+                .housekeepingRuns(housekeepingRuns.sum())
+                .build();
+    }
+
+    /**
+     * Opens a dedicated connection and validates it, outside the borrow queue, so a pool whose
+     * connections are all in use still reports a reachable database.
+     */
+    boolean isReachable() {
+        try (Connection conn = DriverManager.getConnection(config.getUrl(), config.getUsername(), config.getPassword())) {
+            return conn.isValid(config.getValidationTimeoutSeconds());
+        } catch (SQLException e) {
+            log.debug("{} is unreachable: {}", config.getPoolName(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Connections currently borrowed or being waited for; cheap enough to call on every borrow.
+     */
+    int getBusyCount() {
+        return config.getMaxSize() - borrowPermits.availablePermits() + borrowPermits.getQueueLength();
+    }
+
+    public PoolConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Closes idle connections and stops the pool. Connections still borrowed are closed as they
+     * are returned. After shutdown the pool cannot be used.
+     */
+    @Override
+    public void close() {
+        if (shutdown) {
+            return;
+        }
+        shutdown = true;
+        bag.close();
+        connectionCreator.shutdownNow();
+        housekeeper.shutdownNow();
+        for (PoolEntry entry : bag.values(PoolEntry.STATE_NOT_IN_USE)) {
+            if (bag.reserve(entry)) {
+                closeEntry(entry);
             }
         }
+        log.info("{} shut down ({})", config.getPoolName(), getStats());
+    }
+
+    /**
+     * Returns a borrowed connection back to the pool.
+     */
+    void release(PooledConnection lease) {
+        try {
+            recycle(lease);
+        } finally {
+            borrowPermits.release();
+        }
+    }
+
+    private void recycle(PooledConnection lease) {
+        PoolEntry entry = lease.entry();
+        try {
+            lease.reset();
+        } catch (SQLException e) {
+            log.debug("{} discarding connection that failed to reset: {}", config.getPoolName(), e.getMessage());
+            closeEntry(entry);
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (entry.evict || isExpired(entry, now)) {
+            lifetimeRetirements.increment();
+            closeEntry(entry);
+            return;
+        }
+        if (shutdown || !isConnectionValid(entry.connection)) {
+            closeEntry(entry);
+            return;
+        }
+        entry.lastAccessed = now;
+        bag.requite(entry);
+    }
 
+    /**
+     * One housekeeping pass: retires expired and long-idle connections, validates the remaining
+     * idle ones, reconciles the connection count and tops the pool up to {@code minIdle}.
+     */
+    private void housekeep() {
         try {
-            conn = idleConnections.poll(BORROW_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
-            if (conn == null) {
-                throw new SQLException("Timeout waiting for a free database connection");
+            housekeepingRuns.increment();
+            long now = System.currentTimeMillis();
+            int idle = bag.getCount(PoolEntry.STATE_NOT_IN_USE);
+            for (PoolEntry entry : bag.values()) {
+                if (isExpired(entry, now)) {
+                    if (bag.reserve(entry)) {
+                        lifetimeRetirements.increment();
+                        closeEntry(entry);
+                        idle--;
+                    } else if (entry.getState() == PoolEntry.STATE_IN_USE) {
+                        // retire it as soon as the borrower gives it back
+                        entry.evict = true;
+                    }
+                    continue;
+                }
+                if (!bag.reserve(entry)) {
+                    continue;
+                }
+                long idleFor = now - entry.lastAccessed;
+                if (config.getIdleTimeoutMillis() > 0 && idleFor > config.getIdleTimeoutMillis() && idle > config.getMinIdle()) {
+                    idleEvictions.increment();
+                    closeEntry(entry);
+                    idle--;
+                } else if (!validate(entry)) {
+                    closeEntry(entry);
+                    idle--;
+                } else {
+                    bag.unreserve(entry);
+                }
             }
-            if (!isConnectionValid(conn)) {
-                // Try once more recursively
-                return getConnection();
+
+            reconcile();
+
+            int deficit = config.getMinIdle() - bag.getCount(PoolEntry.STATE_NOT_IN_USE);
+            if (deficit > 0) {
+                requestConnections(deficit);
             }
-            return wrap(conn);
-        } catch (InterruptedException ie) {
-            Thread.currentThread().interrupt();
-            throw new SQLException("Interrupted while waiting for a database connection", ie);
+            log.debug("{} housekeeping done ({})", config.getPoolName(), getStats());
+        } catch (RuntimeException e) {
+            log.warn("{} housekeeping failed", config.getPoolName(), e);
+        }
+    }
+
+    /**
+     * Corrects {@code totalConnections} if it disagrees with the connections actually tracked.
+     * A drift must be seen on two consecutive passes, so in-flight creations and removals do not
+     * trigger a correction.
+     */
+    private void reconcile() {
+        int drift = totalConnections.get() - (bag.size() + connecting.get());
+        if (drift != 0 && drift == lastDrift) {
+            totalConnections.addAndGet(-drift);
+            reconciliations.increment();
+            log.warn("{} connection count was off by {}, corrected", config.getPoolName(), drift);
+            lastDrift = 0;
+        } else {
+            lastDrift = drift;
         }
     }
 
     /**
-     * Returns the connection back to the pool. If the pool is already full, the connection is closed.
+     * Called by the bag when borrowers are waiting: schedules background creation of up to
+     * {@code waiting} connections, bounded by {@code pool.maxSize}.
      */
-    public static void releaseConnection(Connection conn) {
-        if (conn == null) return;
+    private void requestConnections(int waiting) {
+        if (shutdown) {
+            return;
+        }
+        for (int i = 0; i < waiting; i++) {
+            int pending = pendingCreations.get();
+            if (pending >= waiting || totalConnections.get() + pending >= config.getMaxSize()) {
+                return;
+            }
+            if (pendingCreations.compareAndSet(pending, pending + 1)) {
+                connectionCreator.execute(this::addConnection);
+            }
+        }
+    }
+
+    private void addConnection() {
+        boolean pending = true;
         try {
-            if (!isConnectionValid(conn)) {
-                totalConnections.decrementAndGet();
-                closeQuietly(conn);
+            long backoffMillis = 250;
+            while (!shutdown && reserveSlot()) {
+                Connection conn = null;
+                PoolEntry entry;
+                connecting.incrementAndGet();
+                try {
+                    conn = DriverManager.getConnection(config.getUrl(), config.getUsername(), config.getPassword());
+                    entry = new PoolEntry(conn, newStatementCache(conn));
+                } catch (SQLException e) {
+                    closeQuietly(conn);
+                    connecting.decrementAndGet();
+                    totalConnections.decrementAndGet();
+                    lastCreateFailure = e;
+                    log.warn("{} failed to open a connection: {}", config.getPoolName(), e.getMessage());
+                    // keep retrying only while somebody is actually waiting for this connection
+                    if (bag.getWaitingThreadCount() == 0) {
+                        return;
+                    }
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(backoffMillis));
+                    backoffMillis = Math.min(backoffMillis * 2, 5000);
+                    continue;
+                }
+                createdCount.increment();
+                lastCreateFailure = null;
+                // stop counting as pending before a waiter can get the entry: a borrower arriving
+                // right after the hand-off must request its own connection, not wait for this one
+                pendingCreations.decrementAndGet();
+                pending = false;
+                try {
+                    bag.add(entry);
+                } catch (IllegalStateException closed) {
+                    totalConnections.decrementAndGet();
+                    closeQuietly(conn);
+                } finally {
+                    connecting.decrementAndGet();
+                }
                 return;
             }
-            if (!idleConnections.offer(conn)) {
-                // Queue is full – close the connection, we exceeded maxIdle
-                totalConnections.decrementAndGet();
-                closeQuietly(conn);
+        } finally {
+            if (pending) {
+                pendingCreations.decrementAndGet();
+            }
+        }
+    }
+
+    private StatementCache newStatementCache(Connection conn) {
+        int size = config.getStatementCacheSize();
+        return size > 0
+                ? new StatementCache(conn, size, statementCacheHits, statementCacheMisses, statementCacheEvictions)
+                : null;
+    }
+
+    private boolean reserveSlot() {
+        while (true) {
+            int total = totalConnections.get();
+            if (total >= config.getMaxSize()) {
+                return false;
+            }
+            if (totalConnections.compareAndSet(total, total + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void closeEntry(PoolEntry entry) {
+        if (bag.remove(entry)) {
+            totalConnections.decrementAndGet();
+            closedCount.increment();
+            if (entry.statementCache != null) {
+                entry.statementCache.close();
+            }
+            closeQuietly(entry.connection);
+            // replace the lost capacity if somebody is already waiting for it
+            int waiting = bag.getWaitingThreadCount();
+            if (waiting > 0) {
+                requestConnections(waiting);
             }
-        } catch (Exception e) {
-            closeQuietly(conn);
         }
     }
 
     /**
-     * Closes and removes all connections. After shutdown the pool cannot be used.
+     * Borrow-time check: retires expired connections and re-validates ones idle for longer than
+     * {@link #ALIVE_BYPASS_WINDOW_MS}.
      */
-    public static synchronized void shutdown() {
-        Connection conn;
-        while ((conn = idleConnections.poll()) != null) {
-            closeQuietly(conn);
-            totalConnections.decrementAndGet();
+    private boolean isUsable(PoolEntry entry) {
+        long now = System.currentTimeMillis();
+        if (entry.evict || isExpired(entry, now)) {
+            lifetimeRetirements.increment();
+            return false;
+        }
+        if (now - entry.lastAccessed > ALIVE_BYPASS_WINDOW_MS) {
+            return validate(entry);
         }
+        return isConnectionValid(entry.connection);
     }
 
-    private static Connection createNewConnection() throws SQLException {
-        Connection conn = DriverManager.getConnection(
-                props.getProperty("jdbc.url"),
-                props.getProperty("jdbc.username"),
-                props.getProperty("jdbc.password"));
-        totalConnections.incrementAndGet();
-        return conn;
+    private boolean isExpired(PoolEntry entry, long now) {
+        return config.getMaxLifetimeMillis() > 0 && now - entry.createdAt > config.getMaxLifetimeMillis();
+    }
+
+    private boolean validate(PoolEntry entry) {
+        try {
+            if (entry.connection.isValid(config.getValidationTimeoutSeconds())) {
+                return true;
+            }
+        } catch (SQLException ignored) {
+        }
+        validationFailures.increment();
+        log.debug("{} connection failed validation, discarding", config.getPoolName());
+        return false;
     }
 
     private static boolean isConnectionValid(Connection conn) {
@@ -165,60 +515,41 @@ public final class ConnectionPool {
         }
     }
 
-    private static Connection wrap(Connection physical) {
-        return (Connection) java.lang.reflect.Proxy.newProxyInstance(
-                ConnectionPool.class.getClassLoader(),
-                new Class[]{Connection.class},
-                (proxy, method, args) -> {
-                    if ("close".equals(method.getName())) {
-                        // If this connection is bound to a transaction, defer closing
-                        if (physical.equals(TX_CONNECTION.get())) {
-                            // no-op during transaction
-                            return null;
-                        }
-                        releaseConnection(physical);
-                        return null;
-                    }
-                    return method.invoke(physical, args);
-                });
+    @Override
+    public PrintWriter getLogWriter() {
+        return null;
     }
 
-    // Package-private helper used by JdbcTransactionManager
-    static void bindTransactionalConnection(Connection conn){
-        TX_CONNECTION.set(conn);
+    @Override
+    public void setLogWriter(PrintWriter out) {
+        // logging goes through SLF4J
     }
 
-    static Connection unbindTransactionalConnection(){
-        Connection c = TX_CONNECTION.get();
-        TX_CONNECTION.remove();
-        return c;
+    @Override
+    public void setLoginTimeout(int seconds) {
+        this.loginTimeout = seconds;
     }
 
-    /**
-     * Resolves placeholders of the form <code>${ENV_VAR:default}</code> or <code>${ENV_VAR}</code>
-     * inside the provided value using {@link System#getenv(String)}.
-     */
-    private static String resolvePlaceholder(String value) {
-        if (value == null) return null;
-        if (!value.contains("${")) return value;
-
-        int start = value.indexOf("${");
-        int end = value.indexOf('}', start);
-        if (start < 0 || end < 0) return value;
-
-        String placeholder = value.substring(start + 2, end);
-        String envName;
-        String defaultVal = "";
-        int colonIdx = placeholder.indexOf(':');
-        if (colonIdx > -1) {
-            envName = placeholder.substring(0, colonIdx);
-            defaultVal = placeholder.substring(colonIdx + 1);
-        } else {
-            envName = placeholder;
+    @Override
+    public int getLoginTimeout() {
+        return loginTimeout;
+    }
+
+    @Override
+    public java.util.logging.Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
         }
+        throw new SQLException(getClass().getName() + " is not a wrapper for " + iface.getName());
+    }
 
-        String envVal = System.getenv(envName);
-        String resolved = envVal != null ? envVal : defaultVal;
-        return value.substring(0, start) + resolved + value.substring(end + 1);
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
     }
-} 
\ No newline at end of file
+}
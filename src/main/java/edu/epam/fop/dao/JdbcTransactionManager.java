@@ -1,32 +1,62 @@
 package edu.epam.fop.dao;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+
+import javax.sql.DataSource;
 import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
 
+/**
+ * Manual transaction demarcation on top of the Spring {@link PlatformTransactionManager}: between
+ * {@link #begin()} and {@link #commit()}/{@link #rollback()} every DAO call on the current thread
+ * reuses one connection, exactly as inside an {@code @Transactional} method.
+ * <p>
+ * {@link #begin()} inside a running transaction, declarative or manual, joins it instead of taking
+ * a second connection. The matching {@link #commit()} then leaves the outcome to the outer
+ * transaction, and {@link #rollback()} marks it rollback-only.
+ */
+@Component
 public class JdbcTransactionManager {
 
-    private JdbcTransactionManager(){}
+    private static final Logger log = LoggerFactory.getLogger(JdbcTransactionManager.class);
+
+    private final PlatformTransactionManager transactionManager;
+    private final DataSource dataSource;
+    private final ThreadLocal<Deque<TransactionStatus>> open = ThreadLocal.withInitial(ArrayDeque::new);
+
+    @Autowired
+    public JdbcTransactionManager(PlatformTransactionManager transactionManager, DataSource dataSource) {
+        this.transactionManager = transactionManager;
+        this.dataSource = dataSource;
+    }
 
-    public static Connection begin() throws Exception {
-        Connection conn = ConnectionPool.getConnection();
-        conn.setAutoCommit(false);
-        ConnectionPool.bindTransactionalConnection(conn);
-        return conn;
+    /**
+     * @return the transaction's connection; closing it does not end the transaction
+     */
+    public Connection begin() throws SQLException {
+        open.get().push(transactionManager.getTransaction(TransactionDefinition.withDefaults()));
+        return dataSource.getConnection();
     }
 
-    public static void commit() {
-        Connection conn = ConnectionPool.unbindTransactionalConnection();
-        if(conn!=null){
-            try { conn.commit(); } catch(Exception e){ org.slf4j.LoggerFactory.getLogger(JdbcTransactionManager.class).error("Commit failed", e);}
-            // return to pool via close()
-            try { conn.close(); } catch(Exception e){ org.slf4j.LoggerFactory.getLogger(JdbcTransactionManager.class).warn("Close failed", e);}
+    public void commit() {
+        TransactionStatus status = open.get().poll();
+        if(status!=null){
+            try { transactionManager.commit(status); } catch(Exception e){ log.error("Commit failed", e);}
         }
     }
 
-    public static void rollback() {
-        Connection conn = ConnectionPool.unbindTransactionalConnection();
-        if(conn!=null){
-            try { conn.rollback(); } catch(Exception e){ org.slf4j.LoggerFactory.getLogger(JdbcTransactionManager.class).error("Rollback failed", e);}
-            try { conn.close(); } catch(Exception e){ org.slf4j.LoggerFactory.getLogger(JdbcTransactionManager.class).warn("Close failed", e);}
+    public void rollback() {
+        TransactionStatus status = open.get().poll();
+        if(status!=null){
+            try { transactionManager.rollback(status); } catch(Exception e){ log.error("Rollback failed", e);}
         }
     }
-} 
\ No newline at end of file
+}
@@ -1,9 +1,12 @@
 package edu.epam.fop.dao;
 
+import edu.epam.fop.model.BookRequestCount;
 import edu.epam.fop.model.Order;
 import edu.epam.fop.model.OrderStatus;
+import edu.epam.fop.model.ReaderActivity;
 
 import java.sql.SQLException;
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface OrderDao {
@@ -16,10 +19,34 @@ public interface OrderDao {
 
     List<Order> findByStatus(OrderStatus status) throws SQLException;
 
-    List<Order> findByStatusPaged(OrderStatus status, int offset, int limit) throws SQLException;
+    List<Order> findByUser(Long userId) throws SQLException;
+
+    /**
+     * Keyset page of a user's orders, newest first. Returns orders strictly older than the
+     * {@code (createdAt, id)} cursor, or the newest ones when the cursor is {@code null}.
+     */
+    List<Order> findByUserBefore(Long userId, LocalDateTime createdAt, Long id, int limit) throws SQLException;
+
+    /**
+     * Keyset page of orders with the given status, oldest first. Returns orders strictly newer than
+     * the {@code (createdAt, id)} cursor, or the oldest ones when the cursor is {@code null}.
+     */
+    List<Order> findByStatusAfter(OrderStatus status, LocalDateTime createdAt, Long id, int limit) throws SQLException;
+
+    /**
+     * Readers with pending or issued orders, in user id order, each with those orders oldest first.
+     * Returns up to {@code limit} readers with an id greater than {@code afterUserId}
+     * ({@code null} = from the first reader).
+     */
+    List<ReaderActivity> findActiveReaders(Long afterUserId, int limit) throws SQLException;
 
     long countByStatus(OrderStatus status) throws SQLException;
 
+    /**
+     * Orders per book, counted in the database through {@code book_copies}, most requested first.
+     */
+    List<BookRequestCount> countRequestsByBook() throws SQLException;
+
     void update(Order order) throws SQLException;
 
     void deleteById(Long id) throws SQLException;
@@ -0,0 +1,167 @@
+package edu.epam.fop.dao;
+
+/**
+ * Settings for {@link ConnectionPool}. Values are normally bound from the <code>jdbc.*</code> and
+ * <code>pool.*</code> keys of <code>application.properties</code> by the persistence configuration.
+ */
+public class PoolConfig {
+
+    private String poolName = "library-pool";
+    private String driverClassName;
+    private String url;
+    private String username;
+    private String password;
+    private int initialSize = 5;
+    private int maxSize = 20;
+    private long borrowTimeoutMillis = 30000;
+    private int statementCacheSize = 64;
+    private int minIdle = 5;
+    private long idleTimeoutMillis = 600000;
+    private long maxLifetimeMillis = 1800000;
+    private int validationTimeoutSeconds = 5;
+    private long housekeepingPeriodMillis = 30000;
+
+    public String getPoolName() {
+        return poolName;
+    }
+
+    public void setPoolName(String poolName) {
+        this.poolName = poolName;
+    }
+
+    public String getDriverClassName() {
+        return driverClassName;
+    }
+
+    public void setDriverClassName(String driverClassName) {
+        this.driverClassName = driverClassName;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    public int getInitialSize() {
+        return initialSize;
+    }
+
+    public void setInitialSize(int initialSize) {
+        this.initialSize = initialSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public long getBorrowTimeoutMillis() {
+        return borrowTimeoutMillis;
+    }
+
+    public void setBorrowTimeoutMillis(long borrowTimeoutMillis) {
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+    }
+
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    public void setStatementCacheSize(int statementCacheSize) {
+        this.statementCacheSize = statementCacheSize;
+    }
+
+    public int getMinIdle() {
+        return minIdle;
+    }
+
+    public void setMinIdle(int minIdle) {
+        this.minIdle = minIdle;
+    }
+
+    /** Idle time after which a connection above {@code minIdle} is closed; 0 disables. */
+    public long getIdleTimeoutMillis() {
+        return idleTimeoutMillis;
+    }
+
+    public void setIdleTimeoutMillis(long idleTimeoutMillis) {
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    /** Age after which a connection is retired once it is idle; 0 disables. */
+    public long getMaxLifetimeMillis() {
+        return maxLifetimeMillis;
+    }
+
+    public void setMaxLifetimeMillis(long maxLifetimeMillis) {
+        this.maxLifetimeMillis = maxLifetimeMillis;
+    }
+
+    public int getValidationTimeoutSeconds() {
+        return validationTimeoutSeconds;
+    }
+
+    public void setValidationTimeoutSeconds(int validationTimeoutSeconds) {
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+    }
+
+    public long getHousekeepingPeriodMillis() {
+        return housekeepingPeriodMillis;
+    }
+
+    public void setHousekeepingPeriodMillis(long housekeepingPeriodMillis) {
+        this.housekeepingPeriodMillis = housekeepingPeriodMillis;
+    }
+
+    void validate() {
+        if (url == null || url.isBlank()) {
+            throw new IllegalArgumentException("jdbc.url must be set");
+        }
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("pool.maxSize must be at least 1");
+        }
+        if (initialSize < 0 || initialSize > maxSize) {
+            throw new IllegalArgumentException("pool.initialSize must be between 0 and pool.maxSize");
+        }
+        if (borrowTimeoutMillis < 0) {
+            throw new IllegalArgumentException("pool.borrowTimeoutMillis must not be negative");
+        }
+        if (statementCacheSize < 0) {
+            throw new IllegalArgumentException("pool.statementCacheSize must not be negative");
+        }
+        if (minIdle < 0 || minIdle > maxSize) {
+            throw new IllegalArgumentException("pool.minIdle must be between 0 and pool.maxSize");
+        }
+        if (idleTimeoutMillis < 0 || maxLifetimeMillis < 0) {
+            throw new IllegalArgumentException("pool.idleTimeoutMillis and pool.maxLifetimeMillis must not be negative");
+        }
+        if (validationTimeoutSeconds < 1) {
+            throw new IllegalArgumentException("pool.validationTimeoutSeconds must be at least 1");
+        }
+        if (housekeepingPeriodMillis < 1) {
+            throw new IllegalArgumentException("pool.housekeepingPeriodMillis must be positive");
+        }
+    }
+}
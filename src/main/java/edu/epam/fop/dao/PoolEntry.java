@@ -0,0 +1,57 @@
+package edu.epam.fop.dao;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * One physical connection tracked by {@link ConnectionPool}. Ownership is decided by a CAS on
+ * {@link #state}, so borrowing and returning never take a lock.
+ */
+final class PoolEntry {
+
+    static final int STATE_NOT_IN_USE = 0;
+    static final int STATE_IN_USE = 1;
+    static final int STATE_REMOVED = -1;
+    static final int STATE_RESERVED = -2;
+
+    private static final AtomicIntegerFieldUpdater<PoolEntry> STATE =
+            AtomicIntegerFieldUpdater.newUpdater(PoolEntry.class, "state");
+
+    final Connection connection;
+    /** Prepared statements of this connection, shared by its successive leases; {@code null} if disabled. */
+    final StatementCache statementCache;
+    final boolean defaultAutoCommit;
+    final int defaultIsolation;
+    final boolean defaultReadOnly;
+    final long createdAt;
+    volatile long lastAccessed;
+
+    /** Set when the entry must be closed instead of returned to the bag (e.g. past max lifetime). */
+    volatile boolean evict;
+
+    @SuppressWarnings("unused")
+    private volatile int state;
+
+    PoolEntry(Connection connection, StatementCache statementCache) throws SQLException {
+        this.connection = connection;
+        this.statementCache = statementCache;
+        this.defaultAutoCommit = connection.getAutoCommit();
+        this.defaultIsolation = connection.getTransactionIsolation();
+        this.defaultReadOnly = connection.isReadOnly();
+        this.createdAt = System.currentTimeMillis();
+        this.lastAccessed = createdAt;
+    }
+
+    int getState() {
+        return state;
+    }
+
+    void setState(int newState) {
+        STATE.set(this, newState);
+    }
+
+    boolean compareAndSet(int expect, int update) {
+        return STATE.compareAndSet(this, expect, update);
+    }
+}
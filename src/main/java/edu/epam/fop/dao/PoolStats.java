@@ -0,0 +1,150 @@
+package edu.epam.fop.dao;
+
+/**
+ * Immutable point-in-time snapshot of {@link ConnectionPool} gauges and counters.
+ */
+public final class PoolStats {
+
+    private int total;
+    private int active;
+    private int idle;
+    private int waiting;
+    private long created;
+    private long closed;
+    private long borrowed;
+    private long timeouts;
+    private long totalWaitNanos;
+    private long statementCacheHits;
+    private long statementCacheMisses;
+    private long statementCacheEvictions;
+    private long validationFailures;
+    private long idleEvictions;
+    private long lifetimeRetirements;
+    private long reconciliations;
+    private long housekeepingRuns;
+
+    private PoolStats() {
+    }
+
+    /** Physical connections currently owned by the pool, including ones being opened. */
+    public int getTotal() {
+        return total;
+    }
+
+    public int getActive() {
+        return active;
+    }
+
+    public int getIdle() {
+        return idle;
+    }
+
+    /** Threads currently blocked in {@link ConnectionPool#getConnection()}. */
+    public int getWaiting() {
+        return waiting;
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    public long getClosed() {
+        return closed;
+    }
+
+    public long getBorrowed() {
+        return borrowed;
+    }
+
+    public long getTimeouts() {
+        return timeouts;
+    }
+
+    /** Time all successful borrows spent waiting, in nanoseconds. */
+    public long getTotalWaitNanos() {
+        return totalWaitNanos;
+    }
+
+    /** Mean time a successful borrow spent waiting, in microseconds. */
+    public double getAverageWaitMicros() {
+        return borrowed == 0 ? 0 : totalWaitNanos / 1000.0 / borrowed;
+    }
+
+    public long getStatementCacheHits() {
+        return statementCacheHits;
+    }
+
+    public long getStatementCacheMisses() {
+        return statementCacheMisses;
+    }
+
+    public long getStatementCacheEvictions() {
+        return statementCacheEvictions;
+    }
+
+    public double getStatementCacheHitRatio() {
+        long lookups = statementCacheHits + statementCacheMisses;
+        return lookups == 0 ? 0 : (double) statementCacheHits / lookups;
+    }
+
+    /** Connections discarded because {@link java.sql.Connection#isValid(int)} failed. */
+    public long getValidationFailures() {
+        return validationFailures;
+    }
+
+    /** Idle connections closed after {@code pool.idleTimeoutMillis}. */
+    public long getIdleEvictions() {
+        return idleEvictions;
+    }
+
+    /** Connections retired after {@code pool.maxLifetimeMillis}. */
+    public long getLifetimeRetirements() {
+        return lifetimeRetirements;
+    }
+
+    /** Times the housekeeper had to correct the pool's connection count. */
+    public long getReconciliations() {
+        return reconciliations;
+    }
+
+    public long getHousekeepingRuns() {
+        return housekeepingRuns;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("total=%d, active=%d, idle=%d, waiting=%d, created=%d, closed=%d, borrowed=%d, timeouts=%d, avgWait=%.1fus, "
+                        + "stmtCacheHitRatio=%.2f, validationFailures=%d, idleEvictions=%d, lifetimeRetirements=%d, reconciliations=%d",
+                total, active, idle, waiting, created, closed, borrowed, timeouts, getAverageWaitMicros(),
+                getStatementCacheHitRatio(), validationFailures, idleEvictions, lifetimeRetirements, reconciliations);
+    }
+
+    /* -------- Builder pattern -------- */
+    static Builder builder() {
+        return new Builder();
+    }
+
+    static final class Builder {
+        private final PoolStats stats = new PoolStats();
+
+        Builder total(int v) { stats.total = v; return this; }
+        Builder active(int v) { stats.active = v; return this; }
+        Builder idle(int v) { stats.idle = v; return this; }
+        Builder waiting(int v) { stats.waiting = v; return this; }
+        Builder created(long v) { stats.created = v; return this; }
+        Builder closed(long v) { stats.closed = v; return this; }
+        Builder borrowed(long v) { stats.borrowed = v; return this; }
+        Builder timeouts(long v) { stats.timeouts = v; return this; }
+        Builder totalWaitNanos(long v) { stats.totalWaitNanos = v; return this; }
+        Builder statementCacheHits(long v) { stats.statementCacheHits = v; return this; }
+        Builder statementCacheMisses(long v) { stats.statementCacheMisses = v; return this; }
+        Builder statementCacheEvictions(long v) { stats.statementCacheEvictions = v; return this; }
+        Builder validationFailures(long v) { stats.validationFailures = v; return this; }
+        Builder idleEvictions(long v) { stats.idleEvictions = v; return this; }
+        Builder lifetimeRetirements(long v) { stats.lifetimeRetirements = v; return this; }
+        Builder reconciliations(long v) { stats.reconciliations = v; return this; }
+        Builder housekeepingRuns(long v) { stats.housekeepingRuns = v; return this; }
+
+        PoolStats build() { return stats; }
+    }
+}
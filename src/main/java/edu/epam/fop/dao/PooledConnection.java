@@ -0,0 +1,466 @@
+package edu.epam.fop.dao;
+
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.CallableStatement;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.NClob;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLClientInfoException;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.sql.Struct;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * The {@link Connection} handed out by {@link ConnectionPool}.
+ * <p>
+ * A new instance is created for every borrow and is dead once closed, so a caller that keeps a
+ * reference after {@link #close()} gets "Connection is closed" instead of reaching the next
+ * borrower's lease. Every call is a plain virtual call on the physical connection. {@link #close()}
+ * closes the statements opened through this handle, restores autocommit, isolation and read-only
+ * mode if a caller changed them (rolling back any uncommitted work first) and gives the connection
+ * back to the pool. The closed flag is switched by a CAS, so a second close, even from another
+ * thread, never returns the connection twice.
+ * <p>
+ * When the pool has a statement cache, plain {@code prepareStatement} calls are served from the
+ * physical connection's {@link StatementCache}, so the constant SQL of the DAOs is parsed once per
+ * physical connection rather than once per call.
+ */
+final class PooledConnection implements Connection {
+
+    private static final AtomicIntegerFieldUpdater<PooledConnection> CLOSED =
+            AtomicIntegerFieldUpdater.newUpdater(PooledConnection.class, "closed");
+
+    private final ConnectionPool pool;
+    private final PoolEntry entry;
+    private final Connection delegate;
+    private final StatementCache statementCache;
+    private final List<Statement> openStatements = new ArrayList<>();
+
+    private boolean autoCommit;
+    private int isolation;
+    private boolean readOnly;
+    private volatile int closed;
+
+    PooledConnection(ConnectionPool pool, PoolEntry entry) {
+        this.pool = pool;
+        this.entry = entry;
+        this.delegate = entry.connection;
+        this.statementCache = entry.statementCache;
+        this.autoCommit = entry.defaultAutoCommit;
+        this.isolation = entry.defaultIsolation;
+        this.readOnly = entry.defaultReadOnly;
+    }
+
+    PoolEntry entry() {
+        return entry;
+    }
+
+    /**
+     * Brings the physical connection back to its initial state.
+     * @throws SQLException if the connection is unusable and must be discarded
+     */
+    void reset() throws SQLException {
+        SQLException failure = null;
+        for (Statement st : openStatements) {
+            try {
+                if (!st.isClosed()) {
+                    st.close();
+                }
+            } catch (SQLException e) {
+                failure = e;
+            }
+        }
+        openStatements.clear();
+        if (failure != null) {
+            throw failure;
+        }
+
+        if (!autoCommit) {
+            delegate.rollback();
+        }
+        if (autoCommit != entry.defaultAutoCommit) {
+            delegate.setAutoCommit(entry.defaultAutoCommit);
+            autoCommit = entry.defaultAutoCommit;
+        }
+        if (isolation != entry.defaultIsolation) {
+            delegate.setTransactionIsolation(entry.defaultIsolation);
+            isolation = entry.defaultIsolation;
+        }
+        if (readOnly != entry.defaultReadOnly) {
+            delegate.setReadOnly(entry.defaultReadOnly);
+            readOnly = entry.defaultReadOnly;
+        }
+    }
+
+    private PreparedStatement prepareCached(String sql, int resultSetType, int resultSetConcurrency,
+                                            int resultSetHoldability, int autoGeneratedKeys) throws SQLException {
+        StatementCache.Key key = new StatementCache.Key(sql, resultSetType, resultSetConcurrency, resultSetHoldability, autoGeneratedKeys);
+        return track(statementCache.prepare(this, key));
+    }
+
+    private void checkOpen() throws SQLException {
+        if (closed != 0) {
+            throw new SQLException("Connection is closed");
+        }
+    }
+
+    private <T extends Statement> T track(T st) {
+        openStatements.add(st);
+        return st;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        if (CLOSED.compareAndSet(this, 0, 1)) {
+            pool.release(this);
+        }
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed != 0;
+    }
+
+    @Override
+    public Statement createStatement() throws SQLException {
+        checkOpen();
+        return track(delegate.createStatement());
+    }
+
+    @Override
+    public Statement createStatement(int resultSetType, int resultSetConcurrency) throws SQLException {
+        checkOpen();
+        return track(delegate.createStatement(resultSetType, resultSetConcurrency));
+    }
+
+    @Override
+    public Statement createStatement(int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+        checkOpen();
+        return track(delegate.createStatement(resultSetType, resultSetConcurrency, resultSetHoldability));
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql) throws SQLException {
+        checkOpen();
+        if (statementCache != null) {
+            return prepareCached(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY,
+                    StatementCache.Key.DEFAULT_HOLDABILITY, Statement.NO_GENERATED_KEYS);
+        }
+        return track(delegate.prepareStatement(sql));
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+        checkOpen();
+        if (statementCache != null) {
+            return prepareCached(sql, resultSetType, resultSetConcurrency,
+                    StatementCache.Key.DEFAULT_HOLDABILITY, Statement.NO_GENERATED_KEYS);
+        }
+        return track(delegate.prepareStatement(sql, resultSetType, resultSetConcurrency));
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+        checkOpen();
+        if (statementCache != null) {
+            return prepareCached(sql, resultSetType, resultSetConcurrency, resultSetHoldability, Statement.NO_GENERATED_KEYS);
+        }
+        return track(delegate.prepareStatement(sql, resultSetType, resultSetConcurrency, resultSetHoldability));
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
+        checkOpen();
+        if (statementCache != null) {
+            return prepareCached(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY,
+                    StatementCache.Key.DEFAULT_HOLDABILITY, autoGeneratedKeys);
+        }
+        return track(delegate.prepareStatement(sql, autoGeneratedKeys));
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, int[] columnIndexes) throws SQLException {
+        checkOpen();
+        return track(delegate.prepareStatement(sql, columnIndexes));
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql, String[] columnNames) throws SQLException {
+        checkOpen();
+        return track(delegate.prepareStatement(sql, columnNames));
+    }
+
+    @Override
+    public CallableStatement prepareCall(String sql) throws SQLException {
+        checkOpen();
+        return track(delegate.prepareCall(sql));
+    }
+
+    @Override
+    public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+        checkOpen();
+        return track(delegate.prepareCall(sql, resultSetType, resultSetConcurrency));
+    }
+
+    @Override
+    public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+        checkOpen();
+        return track(delegate.prepareCall(sql, resultSetType, resultSetConcurrency, resultSetHoldability));
+    }
+
+    @Override
+    public String nativeSQL(String sql) throws SQLException {
+        checkOpen();
+        return delegate.nativeSQL(sql);
+    }
+
+    @Override
+    public void setAutoCommit(boolean autoCommit) throws SQLException {
+        checkOpen();
+        delegate.setAutoCommit(autoCommit);
+        this.autoCommit = autoCommit;
+    }
+
+    @Override
+    public boolean getAutoCommit() throws SQLException {
+        checkOpen();
+        return autoCommit;
+    }
+
+    @Override
+    public void commit() throws SQLException {
+        checkOpen();
+        delegate.commit();
+    }
+
+    @Override
+    public void rollback() throws SQLException {
+        checkOpen();
+        delegate.rollback();
+    }
+
+    @Override
+    public DatabaseMetaData getMetaData() throws SQLException {
+        checkOpen();
+        return delegate.getMetaData();
+    }
+
+    @Override
+    public void setReadOnly(boolean readOnly) throws SQLException {
+        checkOpen();
+        delegate.setReadOnly(readOnly);
+        this.readOnly = readOnly;
+    }
+
+    @Override
+    public boolean isReadOnly() throws SQLException {
+        checkOpen();
+        return readOnly;
+    }
+
+    @Override
+    public void setCatalog(String catalog) throws SQLException {
+        checkOpen();
+        delegate.setCatalog(catalog);
+    }
+
+    @Override
+    public String getCatalog() throws SQLException {
+        checkOpen();
+        return delegate.getCatalog();
+    }
+
+    @Override
+    public void setTransactionIsolation(int level) throws SQLException {
+        checkOpen();
+        delegate.setTransactionIsolation(level);
+        this.isolation = level;
+    }
+
+    @Override
+    public int getTransactionIsolation() throws SQLException {
+        checkOpen();
+        return isolation;
+    }
+
+    @Override
+    public SQLWarning getWarnings() throws SQLException {
+        checkOpen();
+        return delegate.getWarnings();
+    }
+
+    @Override
+    public void clearWarnings() throws SQLException {
+        checkOpen();
+        delegate.clearWarnings();
+    }
+
+    @Override
+    public Map<String, Class<?>> getTypeMap() throws SQLException {
+        checkOpen();
+        return delegate.getTypeMap();
+    }
+
+    @Override
+    public void setTypeMap(Map<String, Class<?>> map) throws SQLException {
+        checkOpen();
+        delegate.setTypeMap(map);
+    }
+
+    @Override
+    public void setHoldability(int holdability) throws SQLException {
+        checkOpen();
+        delegate.setHoldability(holdability);
+    }
+
+    @Override
+    public int getHoldability() throws SQLException {
+        checkOpen();
+        return delegate.getHoldability();
+    }
+
+    @Override
+    public Savepoint setSavepoint() throws SQLException {
+        checkOpen();
+        return delegate.setSavepoint();
+    }
+
+    @Override
+    public Savepoint setSavepoint(String name) throws SQLException {
+        checkOpen();
+        return delegate.setSavepoint(name);
+    }
+
+    @Override
+    public void rollback(Savepoint savepoint) throws SQLException {
+        checkOpen();
+        delegate.rollback(savepoint);
+    }
+
+    @Override
+    public void releaseSavepoint(Savepoint savepoint) throws SQLException {
+        checkOpen();
+        delegate.releaseSavepoint(savepoint);
+    }
+
+    @Override
+    public Clob createClob() throws SQLException {
+        checkOpen();
+        return delegate.createClob();
+    }
+
+    @Override
+    public Blob createBlob() throws SQLException {
+        checkOpen();
+        return delegate.createBlob();
+    }
+
+    @Override
+    public NClob createNClob() throws SQLException {
+        checkOpen();
+        return delegate.createNClob();
+    }
+
+    @Override
+    public SQLXML createSQLXML() throws SQLException {
+        checkOpen();
+        return delegate.createSQLXML();
+    }
+
+    @Override
+    public boolean isValid(int timeout) throws SQLException {
+        return closed == 0 && delegate.isValid(timeout);
+    }
+
+    @Override
+    public void setClientInfo(String name, String value) throws SQLClientInfoException {
+        delegate.setClientInfo(name, value);
+    }
+
+    @Override
+    public void setClientInfo(Properties properties) throws SQLClientInfoException {
+        delegate.setClientInfo(properties);
+    }
+
+    @Override
+    public String getClientInfo(String name) throws SQLException {
+        checkOpen();
+        return delegate.getClientInfo(name);
+    }
+
+    @Override
+    public Properties getClientInfo() throws SQLException {
+        checkOpen();
+        return delegate.getClientInfo();
+    }
+
+    @Override
+    public Array createArrayOf(String typeName, Object[] elements) throws SQLException {
+        checkOpen();
+        return delegate.createArrayOf(typeName, elements);
+    }
+
+    @Override
+    public Struct createStruct(String typeName, Object[] attributes) throws SQLException {
+        checkOpen();
+        return delegate.createStruct(typeName, attributes);
+    }
+
+    @Override
+    public void setSchema(String schema) throws SQLException {
+        checkOpen();
+        delegate.setSchema(schema);
+    }
+
+    @Override
+    public String getSchema() throws SQLException {
+        checkOpen();
+        return delegate.getSchema();
+    }
+
+    @Override
+    public void abort(Executor executor) throws SQLException {
+        if (CLOSED.compareAndSet(this, 0, 1)) {
+            delegate.abort(executor);
+            pool.release(this);
+        }
+    }
+
+    @Override
+    public void setNetworkTimeout(Executor executor, int milliseconds) throws SQLException {
+        checkOpen();
+        delegate.setNetworkTimeout(executor, milliseconds);
+    }
+
+    @Override
+    public int getNetworkTimeout() throws SQLException {
+        checkOpen();
+        return delegate.getNetworkTimeout();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        return delegate.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || delegate.isWrapperFor(iface);
+    }
+}
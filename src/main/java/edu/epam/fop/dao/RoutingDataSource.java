@@ -0,0 +1,316 @@
+package edu.epam.fop.dao;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link DataSource} that sends reads which tolerate replication lag to replica pools and
+ * everything else to the primary {@link ConnectionPool}.
+ * <p>
+ * A connection comes from a replica only while the current thread is inside a replica route
+ * ({@link #enterReplicaRoute()}, opened by {@code DataSourceRoutingAspect} around
+ * {@code @ReadReplica} methods) and no read-write transaction is active. Healthy replicas
+ * are picked round-robin or by fewest busy connections. A background check validates every target
+ * each {@code healthCheckMillis} on a dedicated connection, outside the pool's borrow queue. A
+ * replica that fails a check, or cannot open a connection for a borrow, leaves the rotation until a
+ * later check succeeds, and reads fall back to the primary while no replica is healthy. A replica
+ * whose connections are all in use is only busy: the read moves on to the next replica or the
+ * primary, and the replica stays in the rotation.
+ * <p>
+ * Writes are never routed: anything that writes inside a replica route fails on the read-only
+ * replica rather than silently going to the wrong database.
+ */
+public final class RoutingDataSource implements DataSource, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(RoutingDataSource.class);
+
+    private static final ThreadLocal<Boolean> replicaRoute = new ThreadLocal<>();
+
+    public enum Selection {
+        ROUND_ROBIN, LEAST_BUSY;
+
+        /** Parses {@code round-robin} / {@code least-busy}, case-insensitively. */
+        public static Selection parse(String value) {
+            return valueOf(value.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+        }
+    }
+
+    private final Target primary;
+    private final List<Target> replicas;
+    private final Selection selection;
+    private final long replicaBorrowTimeoutMillis;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final ScheduledExecutorService healthChecker;
+
+    /**
+     * @param replicas pools of the read replicas; closed together with this data source
+     * @param replicaBorrowTimeoutMillis how long a read waits for a replica connection before
+     *                                   falling back to the primary
+     * @param healthCheckMillis interval of the background validation of every target
+     */
+    public RoutingDataSource(ConnectionPool primary, List<ConnectionPool> replicas, Selection selection,
+                             long replicaBorrowTimeoutMillis, long healthCheckMillis) {
+        this.primary = new Target(primary);
+        List<Target> targets = new ArrayList<>();
+        for (ConnectionPool replica : replicas) {
+            targets.add(new Target(replica));
+        }
+        this.replicas = Collections.unmodifiableList(targets);
+        this.selection = selection;
+        this.replicaBorrowTimeoutMillis = replicaBorrowTimeoutMillis;
+
+        if (targets.isEmpty()) {
+            this.healthChecker = null;
+            return;
+        }
+        this.healthChecker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "datasource-health");
+            t.setDaemon(true);
+            return t;
+        });
+        this.healthChecker.scheduleWithFixedDelay(this::checkHealth, healthCheckMillis, healthCheckMillis,
+                TimeUnit.MILLISECONDS);
+        log.info("Routing reads to {} replica(s) by {}", targets.size(), selection);
+    }
+
+    /**
+     * Routes this thread's connections to a replica until {@link #exitReplicaRoute()}.
+     * @return {@code false} if there are no replicas or the thread is already in a replica route,
+     *         in which case the caller must not exit it
+     */
+    public boolean enterReplicaRoute() {
+        if (replicas.isEmpty() || replicaRoute.get() != null) {
+            return false;
+        }
+        replicaRoute.set(Boolean.TRUE);
+        return true;
+    }
+
+    public void exitReplicaRoute() {
+        replicaRoute.remove();
+    }
+
+    /**
+     * Whether the current thread reads from a replica, i.e. may see data that lags the primary.
+     */
+    public static boolean isReplicaRoute() {
+        return replicaRoute.get() != null;
+    }
+
+    public boolean hasReplicas() {
+        return !replicas.isEmpty();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (replicaRoute.get() == null || inReadWriteTransaction()) {
+            return primary.borrow();
+        }
+        for (int attempt = 0; attempt < replicas.size(); attempt++) {
+            Target replica = pickReplica();
+            if (replica == null) {
+                break;
+            }
+            try {
+                Connection conn = replica.pool.getConnection(replicaBorrowTimeoutMillis, TimeUnit.MILLISECONDS);
+                replica.routed.increment();
+                return conn;
+            } catch (SQLTransientConnectionException busy) {
+                // pool exhausted: try the next replica, the replica itself is fine
+            } catch (SQLException e) {
+                markDown(replica, e);
+            }
+        }
+        primary.failovers.increment();
+        return primary.borrow();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Per-call credentials are not supported by " + getClass().getSimpleName());
+    }
+
+    /**
+     * The primary followed by the replicas, for monitoring.
+     */
+    public List<Target> getTargets() {
+        List<Target> all = new ArrayList<>(replicas.size() + 1);
+        all.add(primary);
+        all.addAll(replicas);
+        return all;
+    }
+
+    // a transaction's connection is fetched on its first statement, so the state here is the transaction's
+    private static boolean inReadWriteTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    private Target pickReplica() {
+        int n = replicas.size();
+        int start = Math.floorMod(nextReplica.getAndIncrement(), n);
+        Target best = null;
+        int bestBusy = Integer.MAX_VALUE;
+        for (int i = 0; i < n; i++) {
+            Target t = replicas.get((start + i) % n);
+            if (!t.healthy) {
+                continue;
+            }
+            if (selection == Selection.ROUND_ROBIN) {
+                return t;
+            }
+            // starting from a rotating index spreads ties evenly
+            int busy = t.pool.getBusyCount();
+            if (busy < bestBusy) {
+                best = t;
+                bestBusy = busy;
+            }
+        }
+        return best;
+    }
+
+    private void markDown(Target target, SQLException e) {
+        if (target.healthy) {
+            target.healthy = false;
+            log.warn("{} taken out of rotation: {}", target.getName(), e.getMessage());
+        }
+    }
+
+    private void checkHealth() {
+        for (Target target : getTargets()) {
+            boolean ok;
+            try {
+                // a saturated pool would time out here as well, so bypass it
+                ok = target.pool.isReachable();
+            } catch (RuntimeException e) {
+                log.warn("Health check of {} failed", target.getName(), e);
+                ok = false;
+            }
+            if (ok != target.healthy) {
+                target.healthy = ok;
+                if (ok) {
+                    log.info("{} is healthy again", target.getName());
+                } else {
+                    log.warn("{} failed its health check", target.getName());
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops the health checks and closes the replica pools. The primary pool is a bean of its own
+     * and is left open.
+     */
+    @Override
+    public void close() {
+        if (healthChecker != null) {
+            healthChecker.shutdownNow();
+        }
+        for (Target replica : replicas) {
+            replica.pool.close();
+        }
+    }
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return null;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+        // logging goes through SLF4J
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+        primary.pool.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return primary.pool.getLoginTimeout();
+    }
+
+    @Override
+    public java.util.logging.Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        return primary.pool.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this) || primary.pool.isWrapperFor(iface);
+    }
+
+    /**
+     * One database behind the router, with its health and routing counters.
+     */
+    public static final class Target {
+
+        private final ConnectionPool pool;
+        private final LongAdder routed = new LongAdder();
+        private final LongAdder failovers = new LongAdder();
+        private volatile boolean healthy = true;
+
+        Target(ConnectionPool pool) {
+            this.pool = pool;
+        }
+
+        Connection borrow() throws SQLException {
+            Connection conn = pool.getConnection();
+            routed.increment();
+            return conn;
+        }
+
+        public String getName() {
+            return pool.getConfig().getPoolName();
+        }
+
+        public boolean isHealthy() {
+            return healthy;
+        }
+
+        public int getBusyConnections() {
+            return pool.getBusyCount();
+        }
+
+        /** The counters of this target's connection pool. */
+        public PoolStats getPoolStats() {
+            return pool.getStats();
+        }
+
+        /** Connections handed out from this target. */
+        public long getRoutedCount() {
+            return routed.sum();
+        }
+
+        /** Replica reads that fell back to this target (the primary) because no replica could serve them. */
+        public long getFailoverCount() {
+            return failovers.sum();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package edu.epam.fop.dao;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Forward-only iterator over a query result that maps each row only when it is reached, so a large
+ * result can be written out (e.g. by a view's {@code th:each}) without ever holding it in memory.
+ * <p>
+ * The driver fetches {@code fetchSize} rows per round trip. PostgreSQL only honours the fetch size
+ * outside auto-commit, so the cursor switches it off; the pool restores the connection when it is
+ * returned. The connection is held until the last row has been read or {@link #close()} is called,
+ * and the caller must always close the cursor in case iteration stops early.
+ */
+public class RowCursor<T> implements Iterator<T>, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(RowCursor.class);
+
+    private final Connection conn;
+    private final PreparedStatement ps;
+    private final ResultSet rs;
+    private final RowMapper<T> mapper;
+    private T next;
+    private boolean closed;
+
+    private RowCursor(Connection conn, PreparedStatement ps, ResultSet rs, RowMapper<T> mapper) {
+        this.conn = conn;
+        this.ps = ps;
+        this.rs = rs;
+        this.mapper = mapper;
+    }
+
+    public static <T> RowCursor<T> open(DataSource dataSource, String sql, int fetchSize, RowMapper<T> mapper)
+            throws SQLException {
+        Connection conn = dataSource.getConnection();
+        PreparedStatement ps = null;
+        try {
+            if (conn.getAutoCommit()) {
+                conn.setAutoCommit(false);
+            }
+            ps = conn.prepareStatement(sql);
+            ps.setFetchSize(fetchSize);
+            return new RowCursor<>(conn, ps, ps.executeQuery(), mapper);
+        } catch (SQLException e) {
+            if (ps != null) {
+                ps.close();
+            }
+            conn.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next != null) {
+            return true;
+        }
+        if (closed) {
+            return false;
+        }
+        try {
+            if (rs.next()) {
+                next = mapper.mapRow(rs);
+                return true;
+            }
+        } catch (SQLException e) {
+            close();
+            throw new RuntimeException(e);
+        }
+        close();
+        return false;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        T row = next;
+        next = null;
+        return row;
+    }
+
+    /**
+     * Releases the result set and returns the connection to the pool. Safe to call more than once.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try (Connection c = conn; PreparedStatement p = ps; ResultSet r = rs) {
+            // resources are closed in reverse order
+        } catch (SQLException e) {
+            log.warn("Closing row cursor failed", e);
+        }
+    }
+}
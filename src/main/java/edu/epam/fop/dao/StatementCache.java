@@ -0,0 +1,160 @@
+package edu.epam.fop.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded LRU cache of {@link PreparedStatement}s for one physical connection.
+ * <p>
+ * A statement is taken out of the cache while a caller uses it and put back when the caller
+ * closes it, so two overlapping uses of the same SQL never share a statement. Like the connection
+ * it belongs to, the cache is only touched by the thread that currently holds the connection.
+ * Statements whose fetch size, max rows, timeout or other per-statement options were changed
+ * are closed instead of being cached.
+ */
+final class StatementCache {
+
+    private final Connection connection;
+    private final int maxSize;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder evictions;
+    private final Map<Key, CachedPreparedStatement> idle;
+
+    StatementCache(Connection connection, int maxSize, LongAdder hits, LongAdder misses, LongAdder evictions) {
+        this.connection = connection;
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.idle = new LinkedHashMap<>(maxSize * 2, 0.75f, true);
+    }
+
+    /**
+     * Returns a cached statement for the key or prepares a new one on the physical connection.
+     */
+    CachedPreparedStatement prepare(PooledConnection owner, Key key) throws SQLException {
+        CachedPreparedStatement cached = idle.remove(key);
+        if (cached != null) {
+            if (!cached.delegate().isClosed()) {
+                hits.increment();
+                cached.reopen(owner);
+                return cached;
+            }
+            // somebody closed the physical statement behind our back (e.g. via ResultSet.getStatement())
+        }
+        misses.increment();
+        return new CachedPreparedStatement(owner, this, key, create(key));
+    }
+
+    /**
+     * Takes back a statement its caller has closed.
+     */
+    void release(CachedPreparedStatement st) {
+        PreparedStatement ps = st.delegate();
+        try {
+            if (st.isModified() || ps.isClosed()) {
+                closeQuietly(ps);
+                return;
+            }
+            ps.clearParameters();
+            ps.clearBatch();
+            ps.clearWarnings();
+        } catch (SQLException e) {
+            closeQuietly(ps);
+            return;
+        }
+
+        CachedPreparedStatement previous = idle.put(st.key(), st);
+        if (previous != null && previous != st) {
+            closeQuietly(previous.delegate());
+        }
+        if (idle.size() > maxSize) {
+            Map.Entry<Key, CachedPreparedStatement> eldest = idle.entrySet().iterator().next();
+            idle.remove(eldest.getKey());
+            closeQuietly(eldest.getValue().delegate());
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Closes every cached statement; used when the physical connection is discarded.
+     */
+    void close() {
+        List<CachedPreparedStatement> all = new ArrayList<>(idle.values());
+        idle.clear();
+        for (CachedPreparedStatement st : all) {
+            closeQuietly(st.delegate());
+        }
+    }
+
+    int size() {
+        return idle.size();
+    }
+
+    private PreparedStatement create(Key key) throws SQLException {
+        if (key.autoGeneratedKeys != Statement.NO_GENERATED_KEYS) {
+            return connection.prepareStatement(key.sql, key.autoGeneratedKeys);
+        }
+        if (key.holdability != Key.DEFAULT_HOLDABILITY) {
+            return connection.prepareStatement(key.sql, key.resultSetType, key.concurrency, key.holdability);
+        }
+        return connection.prepareStatement(key.sql, key.resultSetType, key.concurrency);
+    }
+
+    private static void closeQuietly(Statement st) {
+        try {
+            st.close();
+        } catch (SQLException ignored) {
+        }
+    }
+
+    /**
+     * Cache key: SQL text plus the result-set options the statement was prepared with.
+     */
+    static final class Key {
+
+        static final int DEFAULT_HOLDABILITY = -1;
+
+        final String sql;
+        final int resultSetType;
+        final int concurrency;
+        final int holdability;
+        final int autoGeneratedKeys;
+        private final int hash;
+
+        Key(String sql, int resultSetType, int concurrency, int holdability, int autoGeneratedKeys) {
+            this.sql = sql;
+            this.resultSetType = resultSetType;
+            this.concurrency = concurrency;
+            this.holdability = holdability;
+            this.autoGeneratedKeys = autoGeneratedKeys;
+            this.hash = Objects.hash(sql, resultSetType, concurrency, holdability, autoGeneratedKeys);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key k = (Key) o;
+            return resultSetType == k.resultSetType
+                    && concurrency == k.concurrency
+                    && holdability == k.holdability
+                    && autoGeneratedKeys == k.autoGeneratedKeys
+                    && sql.equals(k.sql);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
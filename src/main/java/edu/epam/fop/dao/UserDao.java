@@ -15,11 +15,14 @@ public interface UserDao {
 
     List<User> findAll() throws SQLException;
 
-    List<User> findPaged(int offset, int limit) throws SQLException;
+    // Keyset page in id order: up to limit users with an id greater than afterId (null = from the start)
+    List<User> findAfter(Long afterId, int limit) throws SQLException;
 
     long countAll() throws SQLException;
 
     void update(User user) throws SQLException;
 
+    void updatePassword(Long id, String encodedPassword) throws SQLException;
+
     void deleteById(Long id) throws SQLException;
 } 
\ No newline at end of file
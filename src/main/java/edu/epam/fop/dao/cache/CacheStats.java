@@ -0,0 +1,80 @@
+package edu.epam.fop.dao.cache;
+
+/**
+ * Immutable point-in-time snapshot of a DAO cache's counters.
+ */
+public final class CacheStats {
+
+    private final String name;
+    private final int size;
+    private final int maxSize;
+    private final long hits;
+    private final long misses;
+    private final long loads;
+    private final long totalLoadNanos;
+    private final long evictions;
+    private final long invalidations;
+
+    CacheStats(String name, int size, int maxSize, long hits, long misses, long loads, long totalLoadNanos,
+               long evictions, long invalidations) {
+        this.name = name;
+        this.size = size;
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+        this.loads = loads;
+        this.totalLoadNanos = totalLoadNanos;
+        this.evictions = evictions;
+        this.invalidations = invalidations;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public double getHitRatio() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    /** Database round trips made to fill misses; a batch lookup counts once. */
+    public long getLoads() {
+        return loads;
+    }
+
+    public double getAverageLoadMillis() {
+        return loads == 0 ? 0 : totalLoadNanos / 1_000_000.0 / loads;
+    }
+
+    /** Entries dropped to stay within the size bound or because they expired. */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /** Entries removed because the underlying row was written. */
+    public long getInvalidations() {
+        return invalidations;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: size=%d/%d, hitRatio=%.2f, loads=%d, avgLoad=%.2fms, evictions=%d, invalidations=%d",
+                name, size, maxSize, getHitRatio(), loads, getAverageLoadMillis(), evictions, invalidations);
+    }
+}
@@ -0,0 +1,150 @@
+package edu.epam.fop.dao.cache;
+
+import edu.epam.fop.dao.BookCopyDao;
+import edu.epam.fop.dao.RowCursor;
+import edu.epam.fop.model.Book;
+import edu.epam.fop.model.BookCopy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link BookCopyDao} that serves lookups by id from a {@link SegmentedLruCache} and invalidates
+ * entries on every write, including reservations, and again once the surrounding transaction
+ * commits. Copy status changes often and may be written by
+ * other application nodes, so copies use a much shorter time-to-live than books.
+ */
+@Repository
+@Primary
+public class CachingBookCopyDao implements BookCopyDao {
+
+    private final BookCopyDao delegate;
+    private final SegmentedLruCache<Long, BookCopy> cache;
+
+    @Autowired
+    public CachingBookCopyDao(@Qualifier("bookCopyDaoImpl") BookCopyDao delegate,
+                              @Value("${cache.copies.maxSize:20000}") int maxSize,
+                              @Value("${cache.copies.ttlSeconds:60}") long ttlSeconds) {
+        this.delegate = delegate;
+        this.cache = new SegmentedLruCache<>("copies", maxSize, ttlSeconds, CachingBookCopyDao::copyOf);
+    }
+
+    @Override
+    public Long save(BookCopy copy) throws SQLException {
+        return delegate.save(copy);
+    }
+
+    @Override
+    public void saveAll(List<BookCopy> copies) throws SQLException {
+        delegate.saveAll(copies);
+    }
+
+    @Override
+    public BookCopy findById(Long id) throws SQLException {
+        return cache.get(id, delegate::findById);
+    }
+
+    @Override
+    public List<BookCopy> findAll() throws SQLException {
+        return delegate.findAll();
+    }
+
+    @Override
+    public RowCursor<BookCopy> streamAll() throws SQLException {
+        // bulk reads bypass the cache
+        return delegate.streamAll();
+    }
+
+    @Override
+    public List<BookCopy> findByIds(Collection<Long> ids) throws SQLException {
+        return new ArrayList<>(cache.getAll(ids, missing -> {
+            Map<Long, BookCopy> loaded = new HashMap<>();
+            for (BookCopy c : delegate.findByIds(missing)) {
+                loaded.put(c.getId(), c);
+            }
+            return loaded;
+        }).values());
+    }
+
+    @Override
+    public List<BookCopy> findByBookId(Long bookId) throws SQLException {
+        return delegate.findByBookId(bookId);
+    }
+
+    @Override
+    public List<BookCopy> findByBookIds(Collection<Long> bookIds) throws SQLException {
+        return delegate.findByBookIds(bookIds);
+    }
+
+    @Override
+    public BookCopy findByInventoryNumber(String inventoryNumber) throws SQLException {
+        return delegate.findByInventoryNumber(inventoryNumber);
+    }
+
+    @Override
+    public boolean existsByInventoryNumber(String inventoryNumber) throws SQLException {
+        return delegate.existsByInventoryNumber(inventoryNumber);
+    }
+
+    @Override
+    public List<String> findAllInventoryNumbers() throws SQLException {
+        return delegate.findAllInventoryNumbers();
+    }
+
+    @Override
+    public boolean hasUniqueInventoryNumber() throws SQLException {
+        return delegate.hasUniqueInventoryNumber();
+    }
+
+    @Override
+    public BookCopy reserveAvailable(Long bookId) throws SQLException {
+        BookCopy copy = delegate.reserveAvailable(bookId);
+        if (copy != null) {
+            cache.invalidate(copy.getId());
+        }
+        return copy;
+    }
+
+    @Override
+    public void update(BookCopy copy) throws SQLException {
+        try {
+            delegate.update(copy);
+        } finally {
+            cache.invalidate(copy.getId());
+        }
+    }
+
+    @Override
+    public void deleteById(Long id) throws SQLException {
+        try {
+            delegate.deleteById(id);
+        } finally {
+            cache.invalidate(id);
+        }
+    }
+
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    // the cached copy keeps only the id of its book, as the row mapper does
+    private static BookCopy copyOf(BookCopy c) {
+        BookCopy copy = new BookCopy(c.getInventoryNumber(), c.getStatus());
+        copy.setId(c.getId());
+        if (c.getBook() != null) {
+            Book book = new Book();
+            book.setId(c.getBook().getId());
+            copy.setBook(book);
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,108 @@
+package edu.epam.fop.dao.cache;
+
+import edu.epam.fop.dao.BookDao;
+import edu.epam.fop.dao.RowCursor;
+import edu.epam.fop.model.Book;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link BookDao} that serves lookups by id from a {@link SegmentedLruCache} and invalidates
+ * entries on every write and again once the surrounding transaction commits. Lists and searches always go to the database.
+ */
+@Repository
+@Primary
+public class CachingBookDao implements BookDao {
+
+    private final BookDao delegate;
+    private final SegmentedLruCache<Long, Book> cache;
+
+    @Autowired
+    public CachingBookDao(@Qualifier("bookDaoImpl") BookDao delegate,
+                          @Value("${cache.books.maxSize:10000}") int maxSize,
+                          @Value("${cache.books.ttlSeconds:600}") long ttlSeconds) {
+        this.delegate = delegate;
+        this.cache = new SegmentedLruCache<>("books", maxSize, ttlSeconds, CachingBookDao::copyOf);
+    }
+
+    @Override
+    public Long save(Book book) throws SQLException {
+        return delegate.save(book);
+    }
+
+    @Override
+    public void saveAll(List<Book> books) throws SQLException {
+        delegate.saveAll(books);
+    }
+
+    @Override
+    public Book findById(Long id) throws SQLException {
+        return cache.get(id, delegate::findById);
+    }
+
+    @Override
+    public List<Book> findByIds(Collection<Long> ids) throws SQLException {
+        return new ArrayList<>(cache.getAll(ids, missing -> {
+            Map<Long, Book> loaded = new HashMap<>();
+            for (Book b : delegate.findByIds(missing)) {
+                loaded.put(b.getId(), b);
+            }
+            return loaded;
+        }).values());
+    }
+
+    @Override
+    public List<Book> findAll() throws SQLException {
+        return delegate.findAll();
+    }
+
+    @Override
+    public RowCursor<Book> streamAll() throws SQLException {
+        // bulk reads bypass the cache
+        return delegate.streamAll();
+    }
+
+    @Override
+    public List<Book> findAfter(Long afterId, int limit, String titleFilter, String authorFilter) throws SQLException {
+        return delegate.findAfter(afterId, limit, titleFilter, authorFilter);
+    }
+
+    @Override
+    public void update(Book book) throws SQLException {
+        try {
+            delegate.update(book);
+        } finally {
+            cache.invalidate(book.getId());
+        }
+    }
+
+    @Override
+    public void deleteById(Long id) throws SQLException {
+        try {
+            delegate.deleteById(id);
+        } finally {
+            cache.invalidate(id);
+        }
+    }
+
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    // only the scalar columns are cached; relations are loaded separately by the services
+    private static Book copyOf(Book b) {
+        Book copy = new Book(b.getTitle(), b.getAuthor(), b.getDescription());
+        copy.setId(b.getId());
+        return copy;
+    }
+}
@@ -0,0 +1,293 @@
+package edu.epam.fop.dao.cache;
+
+import edu.epam.fop.dao.RoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+
+/**
+ * Bounded read-through cache with a segmented LRU eviction policy.
+ * <p>
+ * New entries enter a small probation segment; a second hit promotes them to the protected
+ * segment, which holds 80% of the capacity. One-off lookups such as a scan over many ids are
+ * therefore evicted from probation without displacing the frequently used entries. Entries may
+ * also expire a fixed time after they were loaded.
+ * <p>
+ * Values are copied on the way in and on the way out with the supplied {@code copier}, because the
+ * model objects are mutable and callers routinely modify what a DAO returns.
+ * <p>
+ * Every invalidation advances a generation counter, and a load only stores its result if the
+ * generation has not moved since the load began, so a load that overlaps the invalidation itself
+ * cannot put the old row back. That alone does not cover a write inside a transaction: other
+ * threads keep reading the committed row until the commit, and a miss after the invalidation
+ * would store it again for the full TTL. An invalidation made while a transaction synchronization
+ * is active is therefore repeated after the commit, and loads inside a read-write transaction are
+ * returned but not stored, since they may see that transaction's uncommitted changes. For the
+ * same reason rows loaded on a replica route (see {@link RoutingDataSource}) are never stored: a
+ * lagging replica can still hold a row the primary has already changed.
+ */
+final class SegmentedLruCache<K, V> {
+
+    /** Loads a single value; may return {@code null} for a missing row, which is not cached. */
+    interface Loader<K, V> {
+        V load(K key) throws SQLException;
+    }
+
+    /** Loads several values in one round trip; missing keys are simply absent from the result. */
+    interface BatchLoader<K, V> {
+        Map<K, V> loadAll(Set<K> keys) throws SQLException;
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        final long expiresAt;
+
+        Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final String name;
+    private final int maxSize;
+    private final int protectedCapacity;
+    private final long ttlNanos;
+    private final UnaryOperator<V> copier;
+
+    // both maps are in access order and only touched under the lock
+    private final LinkedHashMap<K, Entry<V>> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, Entry<V>> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+    private final ReentrantLock lock = new ReentrantLock();
+    private long generation;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * @param maxSize maximum number of entries; 0 disables caching
+     * @param ttlSeconds time after loading at which an entry expires; 0 means never
+     */
+    SegmentedLruCache(String name, int maxSize, long ttlSeconds, UnaryOperator<V> copier) {
+        this.name = name;
+        this.maxSize = Math.max(0, maxSize);
+        this.protectedCapacity = this.maxSize * 4 / 5;
+        this.ttlNanos = ttlSeconds > 0 ? TimeUnit.SECONDS.toNanos(ttlSeconds) : 0;
+        this.copier = copier;
+    }
+
+    V get(K key, Loader<K, V> loader) throws SQLException {
+        V cached = lookup(key);
+        if (cached != null) {
+            return cached;
+        }
+        long gen = currentGeneration();
+        long start = System.nanoTime();
+        V value = loader.load(key);
+        recordLoad(start);
+        if (value != null && isCacheableLoad()) {
+            store(key, value, gen);
+        }
+        return value;
+    }
+
+    /**
+     * Returns the values of all keys that exist, loading every miss with a single batch call.
+     */
+    Map<K, V> getAll(Collection<K> keys, BatchLoader<K, V> loader) throws SQLException {
+        Map<K, V> result = new HashMap<>();
+        Set<K> missing = new LinkedHashSet<>();
+        for (K key : keys) {
+            V cached = lookup(key);
+            if (cached != null) {
+                result.put(key, cached);
+            } else {
+                missing.add(key);
+            }
+        }
+        if (!missing.isEmpty()) {
+            long gen = currentGeneration();
+            long start = System.nanoTime();
+            Map<K, V> loaded = loader.loadAll(missing);
+            recordLoad(start);
+            boolean cacheable = isCacheableLoad();
+            for (Map.Entry<K, V> e : loaded.entrySet()) {
+                if (cacheable) {
+                    store(e.getKey(), e.getValue(), gen);
+                }
+                result.put(e.getKey(), e.getValue());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Drops the entry now and, inside a transaction, once more after it commits.
+     */
+    void invalidate(K key) {
+        evict(key);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(key);
+                }
+            });
+        }
+    }
+
+    private void evict(K key) {
+        lock.lock();
+        try {
+            generation++;
+            if (protectedSegment.remove(key) != null || probation.remove(key) != null) {
+                invalidations.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void invalidateAll() {
+        lock.lock();
+        try {
+            generation++;
+            invalidations.add(protectedSegment.size() + probation.size());
+            protectedSegment.clear();
+            probation.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    CacheStats stats() {
+        int size;
+        lock.lock();
+        try {
+            size = protectedSegment.size() + probation.size();
+        } finally {
+            lock.unlock();
+        }
+        return new CacheStats(name, size, maxSize, hits.sum(), misses.sum(), loads.sum(), loadNanos.sum(),
+                evictions.sum(), invalidations.sum());
+    }
+
+    private V lookup(K key) {
+        if (maxSize == 0) {
+            misses.increment();
+            return null;
+        }
+        Entry<V> entry;
+        lock.lock();
+        try {
+            entry = protectedSegment.get(key);
+            if (entry == null) {
+                entry = probation.remove(key);
+                if (entry != null && !isExpired(entry)) {
+                    promote(key, entry);
+                }
+            }
+            if (entry != null && isExpired(entry)) {
+                protectedSegment.remove(key);
+                evictions.increment();
+                entry = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return copier.apply(entry.value);
+    }
+
+    private void store(K key, V value, long expectedGeneration) {
+        if (maxSize == 0) {
+            return;
+        }
+        Entry<V> entry = new Entry<>(copier.apply(value), ttlNanos > 0 ? System.nanoTime() + ttlNanos : 0);
+        lock.lock();
+        try {
+            if (generation != expectedGeneration) {
+                return;
+            }
+            if (protectedSegment.containsKey(key)) {
+                protectedSegment.put(key, entry);
+            } else {
+                probation.put(key, entry);
+                trimProbation();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // must hold the lock
+    private void promote(K key, Entry<V> entry) {
+        protectedSegment.put(key, entry);
+        if (protectedSegment.size() > protectedCapacity) {
+            // demote the least recently used protected entry back to probation
+            Iterator<Map.Entry<K, Entry<V>>> it = protectedSegment.entrySet().iterator();
+            Map.Entry<K, Entry<V>> eldest = it.next();
+            it.remove();
+            probation.put(eldest.getKey(), eldest.getValue());
+        }
+        trimProbation();
+    }
+
+    // must hold the lock
+    private void trimProbation() {
+        int capacity = maxSize - protectedSegment.size();
+        Iterator<Map.Entry<K, Entry<V>>> it = probation.entrySet().iterator();
+        while (probation.size() > capacity && it.hasNext()) {
+            it.next();
+            it.remove();
+            evictions.increment();
+        }
+    }
+
+    // rows read from a replica may predate an invalidation, and rows read inside a read-write
+    // transaction may never be committed, so both are served but not kept
+    private static boolean isCacheableLoad() {
+        if (RoutingDataSource.isReplicaRoute()) {
+            return false;
+        }
+        return !TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    private long currentGeneration() {
+        lock.lock();
+        try {
+            return generation;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean isExpired(Entry<V> entry) {
+        return entry.expiresAt != 0 && System.nanoTime() - entry.expiresAt > 0;
+    }
+
+    private void recordLoad(long start) {
+        loads.increment();
+        loadNanos.add(System.nanoTime() - start);
+    }
+}
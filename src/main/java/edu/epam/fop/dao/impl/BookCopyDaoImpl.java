@@ -1,14 +1,22 @@
 package edu.epam.fop.dao.impl;
 
 import edu.epam.fop.dao.BookCopyDao;
-import edu.epam.fop.dao.ConnectionPool;
+import edu.epam.fop.dao.RowCursor;
 import edu.epam.fop.model.BookCopy;
+import edu.epam.fop.model.Order;
+import edu.epam.fop.model.OrderStatus;
 import edu.epam.fop.model.Status;
+import edu.epam.fop.model.User;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
+import javax.sql.DataSource;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Repository
 public class BookCopyDaoImpl implements BookCopyDao {
@@ -16,13 +24,38 @@ public class BookCopyDaoImpl implements BookCopyDao {
     private static final String INSERT_SQL = "INSERT INTO book_copies (inventory_number, status, book_id) VALUES (?, ?, ?)";
     private static final String SELECT_BY_ID_SQL = "SELECT id, inventory_number, status, book_id FROM book_copies WHERE id=?";
     private static final String SELECT_ALL_SQL = "SELECT id, inventory_number, status, book_id FROM book_copies";
+    // at most one order per copy is ISSUED; the subquery keeps a stray duplicate from repeating the copy
+    private static final String SELECT_ALL_DETAILED_SQL = "SELECT c.id, c.inventory_number, c.status, c.book_id, b.title, "
+            + "o.id AS order_id, o.dueDate, u.username FROM book_copies c "
+            + "LEFT JOIN books b ON b.id = c.book_id "
+            + "LEFT JOIN orders o ON o.id = (SELECT MAX(io.id) FROM orders io WHERE io.copy_id = c.id AND io.status = 'ISSUED') "
+            + "LEFT JOIN users u ON u.id = o.user_id "
+            + "ORDER BY c.id";
     private static final String SELECT_BY_BOOK_SQL = "SELECT id, inventory_number, status, book_id FROM book_copies WHERE book_id=?";
+    private static final String SELECT_BY_IDS_SQL = "SELECT id, inventory_number, status, book_id FROM book_copies WHERE id = ANY(?)";
+    private static final String SELECT_BY_BOOKS_SQL = "SELECT id, inventory_number, status, book_id FROM book_copies WHERE book_id = ANY(?)";
+    private static final String SELECT_BY_INVENTORY_SQL = "SELECT id, inventory_number, status, book_id FROM book_copies WHERE inventory_number=?";
+    private static final String EXISTS_BY_INVENTORY_SQL = "SELECT 1 FROM book_copies WHERE inventory_number=? LIMIT 1";
+    private static final String SELECT_INVENTORY_NUMBERS_SQL = "SELECT inventory_number FROM book_copies";
+    // SKIP LOCKED lets concurrent reservations for the same title claim different copies instead of queueing
+    private static final String RESERVE_AVAILABLE_SQL = "UPDATE book_copies SET status='RESERVED' WHERE id = "
+            + "(SELECT id FROM book_copies WHERE book_id=? AND status='AVAILABLE' ORDER BY id LIMIT 1 FOR UPDATE SKIP LOCKED) "
+            + "AND status='AVAILABLE' RETURNING id, inventory_number, status, book_id";
     private static final String UPDATE_SQL = "UPDATE book_copies SET inventory_number=?, status=?, book_id=? WHERE id=?";
     private static final String DELETE_SQL = "DELETE FROM book_copies WHERE id=?";
 
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    private final DataSource dataSource;
+
+    @Autowired
+    public BookCopyDaoImpl(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
     @Override
     public Long save(BookCopy copy) throws SQLException {
-        try (Connection conn = ConnectionPool.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement ps = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
             ps.setString(1, copy.getInventoryNumber());
             ps.setString(2, copy.getStatus().name());
@@ -41,9 +74,30 @@ public class BookCopyDaoImpl implements BookCopyDao {
         return null;
     }
 
+    @Override
+    public void saveAll(List<BookCopy> copies) throws SQLException {
+        if (copies.isEmpty()) {
+            return;
+        }
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(INSERT_SQL)) {
+            for (BookCopy copy : copies) {
+                ps.setString(1, copy.getInventoryNumber());
+                ps.setString(2, copy.getStatus().name());
+                if (copy.getBook() != null) {
+                    ps.setLong(3, copy.getBook().getId());
+                } else {
+                    ps.setNull(3, Types.BIGINT);
+                }
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
     @Override
     public BookCopy findById(Long id) throws SQLException {
-        try (Connection conn = ConnectionPool.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement ps = conn.prepareStatement(SELECT_BY_ID_SQL)) {
             ps.setLong(1, id);
             try (ResultSet rs = ps.executeQuery()) {
@@ -58,7 +112,7 @@ public class BookCopyDaoImpl implements BookCopyDao {
     @Override
     public List<BookCopy> findAll() throws SQLException {
         List<BookCopy> list = new ArrayList<>();
-        try (Connection conn = ConnectionPool.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement ps = conn.prepareStatement(SELECT_ALL_SQL);
              ResultSet rs = ps.executeQuery()) {
             while (rs.next()) {
@@ -68,10 +122,36 @@ public class BookCopyDaoImpl implements BookCopyDao {
         return list;
     }
 
+    @Override
+    public RowCursor<BookCopy> streamAll() throws SQLException {
+        return RowCursor.open(dataSource, SELECT_ALL_DETAILED_SQL, STREAM_FETCH_SIZE, rs -> {
+            BookCopy copy = mapRow(rs);
+            if (copy.getBook() != null) {
+                copy.getBook().setTitle(rs.getString("title"));
+            }
+            long orderId = rs.getLong("order_id");
+            if (orderId != 0) {
+                Order order = new Order();
+                order.setId(orderId);
+                order.setStatus(OrderStatus.ISSUED);
+                Date due = rs.getDate("dueDate");
+                if (due != null) {
+                    order.setDueDate(due.toLocalDate());
+                }
+                User user = new User();
+                user.setUsername(rs.getString("username"));
+                order.setUser(user);
+                order.setCopy(copy);
+                copy.getOrders().add(order);
+            }
+            return copy;
+        });
+    }
+
     @Override
     public List<BookCopy> findByBookId(Long bookId) throws SQLException {
         List<BookCopy> list = new ArrayList<>();
-        try (Connection conn = ConnectionPool.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement ps = conn.prepareStatement(SELECT_BY_BOOK_SQL)) {
             ps.setLong(1, bookId);
             try (ResultSet rs = ps.executeQuery()) {
@@ -83,9 +163,102 @@ public class BookCopyDaoImpl implements BookCopyDao {
         return list;
     }
 
+    @Override
+    public List<BookCopy> findByIds(Collection<Long> ids) throws SQLException {
+        return findByIdArray(SELECT_BY_IDS_SQL, ids);
+    }
+
+    @Override
+    public List<BookCopy> findByBookIds(Collection<Long> bookIds) throws SQLException {
+        return findByIdArray(SELECT_BY_BOOKS_SQL, bookIds);
+    }
+
+    @Override
+    public BookCopy findByInventoryNumber(String inventoryNumber) throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(SELECT_BY_INVENTORY_SQL)) {
+            ps.setString(1, inventoryNumber);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return mapRow(rs);
+                }
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean existsByInventoryNumber(String inventoryNumber) throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(EXISTS_BY_INVENTORY_SQL)) {
+            ps.setString(1, inventoryNumber);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    @Override
+    public boolean hasUniqueInventoryNumber() throws SQLException {
+        try (Connection conn = dataSource.getConnection()) {
+            DatabaseMetaData meta = conn.getMetaData();
+            String table = meta.storesUpperCaseIdentifiers() ? "BOOK_COPIES" : "book_copies";
+            // index name -> its columns; partial indexes do not count
+            Map<String, List<String>> unique = new HashMap<>();
+            try (ResultSet rs = meta.getIndexInfo(conn.getCatalog(), conn.getSchema(), table, true, true)) {
+                while (rs.next()) {
+                    String index = rs.getString("INDEX_NAME");
+                    String column = rs.getString("COLUMN_NAME");
+                    if (index == null || rs.getBoolean("NON_UNIQUE")) {
+                        continue;
+                    }
+                    List<String> columns = unique.computeIfAbsent(index, k -> new ArrayList<>());
+                    String filter = rs.getString("FILTER_CONDITION");
+                    columns.add(filter != null && !filter.isBlank() ? null : column);
+                }
+            }
+            for (List<String> columns : unique.values()) {
+                if (columns.size() == 1 && "inventory_number".equalsIgnoreCase(columns.get(0))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    @Override
+    public List<String> findAllInventoryNumbers() throws SQLException {
+        List<String> list = new ArrayList<>();
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(SELECT_INVENTORY_NUMBERS_SQL);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                String number = rs.getString(1);
+                if (number != null) {
+                    list.add(number);
+                }
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public BookCopy reserveAvailable(Long bookId) throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(RESERVE_AVAILABLE_SQL)) {
+            ps.setLong(1, bookId);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return mapRow(rs);
+                }
+            }
+        }
+        return null;
+    }
+
     @Override
     public void update(BookCopy copy) throws SQLException {
-        try (Connection conn = ConnectionPool.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement ps = conn.prepareStatement(UPDATE_SQL)) {
             ps.setString(1, copy.getInventoryNumber());
             ps.setString(2, copy.getStatus().name());
@@ -101,13 +274,33 @@ public class BookCopyDaoImpl implements BookCopyDao {
 
     @Override
     public void deleteById(Long id) throws SQLException {
-        try (Connection conn = ConnectionPool.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement ps = conn.prepareStatement(DELETE_SQL)) {
             ps.setLong(1, id);
             ps.executeUpdate();
         }
     }
 
+    private List<BookCopy> findByIdArray(String sql, Collection<Long> ids) throws SQLException {
+        List<BookCopy> list = new ArrayList<>();
+        if (ids.isEmpty()) {
+            return list;
+        }
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            Array array = conn.createArrayOf("bigint", ids.toArray());
+            ps.setArray(1, array);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    list.add(mapRow(rs));
+                }
+            } finally {
+                array.free();
+            }
+        }
+        return list;
+    }
+
     private BookCopy mapRow(ResultSet rs) throws SQLException {
         BookCopy bc = new BookCopy();
         bc.setId(rs.getLong("id"));
@@ -1,12 +1,15 @@
 package edu.epam.fop.dao.impl;
 
 import edu.epam.fop.dao.BookDao;
-import edu.epam.fop.dao.ConnectionPool;
+import edu.epam.fop.dao.RowCursor;
 import edu.epam.fop.model.Book;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
+import javax.sql.DataSource;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -15,13 +18,24 @@ public class BookDaoImpl implements BookDao {
     private static final String INSERT_SQL = "INSERT INTO books (title, author, description) VALUES (?, ?, ?)";
     private static final String SELECT_BY_ID_SQL = "SELECT id, title, author, description FROM books WHERE id = ?";
     private static final String SELECT_ALL_SQL = "SELECT id, title, author, description FROM books";
-    private static final String SELECT_PAGED_FILTER_SQL = "SELECT id, title, author, description FROM books WHERE (? IS NULL OR LOWER(title) LIKE ?) AND (? IS NULL OR LOWER(author) LIKE ?) LIMIT ? OFFSET ?";
+    private static final String SELECT_ALL_ORDERED_SQL = "SELECT id, title, author, description FROM books ORDER BY id";
+    private static final String SELECT_BY_IDS_SQL = "SELECT id, title, author, description FROM books WHERE id = ANY(?)";
+    private static final String SELECT_AFTER_FILTER_SQL = "SELECT id, title, author, description FROM books WHERE id > ? AND (? IS NULL OR LOWER(title) LIKE ?) AND (? IS NULL OR LOWER(author) LIKE ?) ORDER BY id LIMIT ?";
     private static final String UPDATE_SQL = "UPDATE books SET title=?, author=?, description=? WHERE id=?";
     private static final String DELETE_SQL = "DELETE FROM books WHERE id=?";
 
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    private final DataSource dataSource;
+
+    @Autowired
+    public BookDaoImpl(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
     @Override
     public Long save(Book book) throws SQLException {
-        try (Connection conn = ConnectionPool.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement ps = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
             ps.setString(1, book.getTitle());
             ps.setString(2, book.getAuthor());
@@ -38,9 +52,34 @@ public class BookDaoImpl implements BookDao {
         return null;
     }
 
+    @Override
+    public void saveAll(List<Book> books) throws SQLException {
+        if (books.isEmpty()) {
+            return;
+        }
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            for (Book book : books) {
+                ps.setString(1, book.getTitle());
+                ps.setString(2, book.getAuthor());
+                ps.setString(3, book.getDescription());
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            try (ResultSet rs = ps.getGeneratedKeys()) {
+                for (Book book : books) {
+                    if (!rs.next()) {
+                        break;
+                    }
+                    book.setId(rs.getLong(1));
+                }
+            }
+        }
+    }
+
     @Override
     public Book findById(Long id) throws SQLException {
-        try (Connection conn = ConnectionPool.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement ps = conn.prepareStatement(SELECT_BY_ID_SQL)) {
             ps.setLong(1, id);
             try (ResultSet rs = ps.executeQuery()) {
@@ -55,7 +94,7 @@ public class BookDaoImpl implements BookDao {
     @Override
     public List<Book> findAll() throws SQLException {
         List<Book> list = new ArrayList<>();
-        try (Connection conn = ConnectionPool.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement ps = conn.prepareStatement(SELECT_ALL_SQL);
              ResultSet rs = ps.executeQuery()) {
             while (rs.next()) {
@@ -66,18 +105,44 @@ public class BookDaoImpl implements BookDao {
     }
 
     @Override
-    public List<Book> findPaged(int offset, int limit, String titleFilter, String authorFilter) throws SQLException {
+    public RowCursor<Book> streamAll() throws SQLException {
+        return RowCursor.open(dataSource, SELECT_ALL_ORDERED_SQL, STREAM_FETCH_SIZE, this::mapRow);
+    }
+
+    @Override
+    public List<Book> findByIds(Collection<Long> ids) throws SQLException {
+        List<Book> list = new ArrayList<>();
+        if (ids.isEmpty()) {
+            return list;
+        }
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(SELECT_BY_IDS_SQL)) {
+            Array array = conn.createArrayOf("bigint", ids.toArray());
+            ps.setArray(1, array);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    list.add(mapRow(rs));
+                }
+            } finally {
+                array.free();
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public List<Book> findAfter(Long afterId, int limit, String titleFilter, String authorFilter) throws SQLException {
         List<Book> list = new ArrayList<>();
-        try (Connection conn = ConnectionPool.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SELECT_PAGED_FILTER_SQL)) {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(SELECT_AFTER_FILTER_SQL)) {
             String tf = titleFilter!=null?"%"+titleFilter.toLowerCase()+"%":null;
             String af = authorFilter!=null?"%"+authorFilter.toLowerCase()+"%":null;
-            ps.setString(1, tf);
+            ps.setLong(1, afterId != null ? afterId : 0L);
             ps.setString(2, tf);
-            ps.setString(3, af);
+            ps.setString(3, tf);
             ps.setString(4, af);
-            ps.setInt(5, limit);
-            ps.setInt(6, offset);
+            ps.setString(5, af);
+            ps.setInt(6, limit);
             try(ResultSet rs=ps.executeQuery()){
                 while(rs.next()) list.add(mapRow(rs));
             }
@@ -87,7 +152,7 @@ public class BookDaoImpl implements BookDao {
 
     @Override
     public void update(Book book) throws SQLException {
-        try (Connection conn = ConnectionPool.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement ps = conn.prepareStatement(UPDATE_SQL)) {
             ps.setString(1, book.getTitle());
             ps.setString(2, book.getAuthor());
@@ -99,7 +164,7 @@ public class BookDaoImpl implements BookDao {
 
     @Override
     public void deleteById(Long id) throws SQLException {
-        try (Connection conn = ConnectionPool.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement ps = conn.prepareStatement(DELETE_SQL)) {
             ps.setLong(1, id);
             ps.executeUpdate();
@@ -1,12 +1,16 @@
 package edu.epam.fop.dao.impl;
 
-import edu.epam.fop.dao.ConnectionPool;
 import edu.epam.fop.dao.OrderDao;
+import edu.epam.fop.model.ActiveOrder;
+import edu.epam.fop.model.BookRequestCount;
 import edu.epam.fop.model.Order;
 import edu.epam.fop.model.OrderStatus;
 import edu.epam.fop.model.LendingType;
+import edu.epam.fop.model.ReaderActivity;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
+import javax.sql.DataSource;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -19,14 +23,37 @@ public class OrderDaoImpl implements OrderDao {
     private static final String SELECT_BY_ID_SQL = "SELECT * FROM orders WHERE id=?";
     private static final String SELECT_ALL_SQL = "SELECT * FROM orders";
     private static final String SELECT_BY_STATUS_SQL = "SELECT * FROM orders WHERE status=?";
-    private static final String SELECT_BY_STATUS_PAGED_SQL = "SELECT * FROM orders WHERE status=? LIMIT ? OFFSET ?";
+    private static final String SELECT_BY_USER_SQL = "SELECT * FROM orders WHERE user_id=? ORDER BY createdAt DESC, id DESC";
+    private static final String SELECT_BY_USER_FIRST_SQL = "SELECT * FROM orders WHERE user_id=? ORDER BY createdAt DESC, id DESC LIMIT ?";
+    private static final String SELECT_BY_USER_BEFORE_SQL = "SELECT * FROM orders WHERE user_id=? AND (createdAt, id) < (?, ?) ORDER BY createdAt DESC, id DESC LIMIT ?";
+    private static final String SELECT_BY_STATUS_FIRST_SQL = "SELECT * FROM orders WHERE status=? ORDER BY createdAt, id LIMIT ?";
+    private static final String SELECT_BY_STATUS_AFTER_SQL = "SELECT * FROM orders WHERE status=? AND (createdAt, id) > (?, ?) ORDER BY createdAt, id LIMIT ?";
+    // readers are paged in the subquery; the outer query streams their orders already grouped by reader
+    private static final String SELECT_ACTIVE_READERS_SQL = "SELECT u.id AS user_id, u.username, o.id AS order_id, o.status, "
+            + "o.createdAt, o.dueDate, bc.inventory_number, b.title FROM "
+            + "(SELECT DISTINCT user_id FROM orders WHERE status IN ('PENDING', 'ISSUED') AND user_id > ? ORDER BY user_id LIMIT ?) r "
+            + "JOIN users u ON u.id = r.user_id "
+            + "JOIN orders o ON o.user_id = r.user_id AND o.status IN ('PENDING', 'ISSUED') "
+            + "LEFT JOIN book_copies bc ON bc.id = o.copy_id "
+            + "LEFT JOIN books b ON b.id = bc.book_id "
+            + "ORDER BY u.id, o.createdAt, o.id";
     private static final String COUNT_BY_STATUS_SQL = "SELECT COUNT(*) FROM orders WHERE status=?";
+    private static final String COUNT_REQUESTS_BY_BOOK_SQL = "SELECT b.id, b.title, COUNT(*) AS requests FROM orders o "
+            + "JOIN book_copies c ON c.id = o.copy_id JOIN books b ON b.id = c.book_id "
+            + "GROUP BY b.id, b.title ORDER BY requests DESC, b.id";
     private static final String UPDATE_SQL = "UPDATE orders SET user_id=?, copy_id=?, status=?, dueDate=?, lendingType=? WHERE id=?";
     private static final String DELETE_SQL = "DELETE FROM orders WHERE id=?";
 
+    private final DataSource dataSource;
+
+    @Autowired
+    public OrderDaoImpl(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
     @Override
     public Long save(Order order) throws SQLException {
-        try (Connection conn = ConnectionPool.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement ps = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
             ps.setLong(1, order.getUser().getId());
             ps.setLong(2, order.getCopy().getId());
@@ -52,7 +79,7 @@ public class OrderDaoImpl implements OrderDao {
 
     @Override
     public Order findById(Long id) throws SQLException {
-        try (Connection conn = ConnectionPool.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement ps = conn.prepareStatement(SELECT_BY_ID_SQL)) {
             ps.setLong(1, id);
             try (ResultSet rs = ps.executeQuery()) {
@@ -67,7 +94,7 @@ public class OrderDaoImpl implements OrderDao {
     @Override
     public List<Order> findAll() throws SQLException {
         List<Order> list = new ArrayList<>();
-        try (Connection conn = ConnectionPool.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement ps = conn.prepareStatement(SELECT_ALL_SQL);
              ResultSet rs = ps.executeQuery()) {
             while (rs.next()) {
@@ -80,7 +107,7 @@ public class OrderDaoImpl implements OrderDao {
     @Override
     public List<Order> findByStatus(OrderStatus status) throws SQLException {
         List<Order> list = new ArrayList<>();
-        try (Connection conn = ConnectionPool.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement ps = conn.prepareStatement(SELECT_BY_STATUS_SQL)) {
             ps.setString(1, status.name());
             try (ResultSet rs = ps.executeQuery()) {
@@ -93,13 +120,57 @@ public class OrderDaoImpl implements OrderDao {
     }
 
     @Override
-    public List<Order> findByStatusPaged(OrderStatus status, int offset, int limit) throws SQLException {
+    public List<Order> findByUser(Long userId) throws SQLException {
+        List<Order> list = new ArrayList<>();
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(SELECT_BY_USER_SQL)) {
+            ps.setLong(1, userId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    list.add(mapRow(rs));
+                }
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public List<Order> findByUserBefore(Long userId, LocalDateTime createdAt, Long id, int limit) throws SQLException {
+        List<Order> list = new ArrayList<>();
+        boolean first = createdAt == null || id == null;
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(first ? SELECT_BY_USER_FIRST_SQL : SELECT_BY_USER_BEFORE_SQL)) {
+            ps.setLong(1, userId);
+            if (first) {
+                ps.setInt(2, limit);
+            } else {
+                ps.setTimestamp(2, Timestamp.valueOf(createdAt));
+                ps.setLong(3, id);
+                ps.setInt(4, limit);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    list.add(mapRow(rs));
+                }
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public List<Order> findByStatusAfter(OrderStatus status, LocalDateTime createdAt, Long id, int limit) throws SQLException {
         List<Order> list = new ArrayList<>();
-        try (Connection conn = ConnectionPool.getConnection();
-             PreparedStatement ps = conn.prepareStatement(SELECT_BY_STATUS_PAGED_SQL)) {
+        boolean first = createdAt == null || id == null;
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(first ? SELECT_BY_STATUS_FIRST_SQL : SELECT_BY_STATUS_AFTER_SQL)) {
             ps.setString(1, status.name());
-            ps.setInt(2, limit);
-            ps.setInt(3, offset);
+            if (first) {
+                ps.setInt(2, limit);
+            } else {
+                ps.setTimestamp(2, Timestamp.valueOf(createdAt));
+                ps.setLong(3, id);
+                ps.setInt(4, limit);
+            }
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
                     list.add(mapRow(rs));
@@ -109,9 +180,40 @@ public class OrderDaoImpl implements OrderDao {
         return list;
     }
 
+    @Override
+    public List<ReaderActivity> findActiveReaders(Long afterUserId, int limit) throws SQLException {
+        List<ReaderActivity> list = new ArrayList<>();
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(SELECT_ACTIVE_READERS_SQL)) {
+            ps.setLong(1, afterUserId != null ? afterUserId : 0L);
+            ps.setInt(2, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                ReaderActivity current = null;
+                while (rs.next()) {
+                    long userId = rs.getLong("user_id");
+                    // rows arrive ordered by reader, so a new id closes the previous group
+                    if (current == null || current.getUserId() != userId) {
+                        current = new ReaderActivity(userId, rs.getString("username"));
+                        list.add(current);
+                    }
+                    Timestamp created = rs.getTimestamp("createdAt");
+                    Date due = rs.getDate("dueDate");
+                    String title = rs.getString("title");
+                    current.getOrders().add(new ActiveOrder(rs.getLong("order_id"),
+                            OrderStatus.valueOf(rs.getString("status")),
+                            created != null ? created.toLocalDateTime() : null,
+                            due != null ? due.toLocalDate() : null,
+                            rs.getString("inventory_number"),
+                            title != null ? title : "N/A"));
+                }
+            }
+        }
+        return list;
+    }
+
     @Override
     public long countByStatus(OrderStatus status) throws SQLException {
-        try (Connection conn = ConnectionPool.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement ps = conn.prepareStatement(COUNT_BY_STATUS_SQL)) {
             ps.setString(1, status.name());
             try (ResultSet rs = ps.executeQuery()) {
@@ -123,9 +225,22 @@ public class OrderDaoImpl implements OrderDao {
         return 0;
     }
 
+    @Override
+    public List<BookRequestCount> countRequestsByBook() throws SQLException {
+        List<BookRequestCount> list = new ArrayList<>();
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(COUNT_REQUESTS_BY_BOOK_SQL);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                list.add(new BookRequestCount(rs.getLong("id"), rs.getString("title"), rs.getLong("requests")));
+            }
+        }
+        return list;
+    }
+
     @Override
     public void update(Order order) throws SQLException {
-        try (Connection conn = ConnectionPool.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement ps = conn.prepareStatement(UPDATE_SQL)) {
             ps.setLong(1, order.getUser().getId());
             ps.setLong(2, order.getCopy().getId());
@@ -143,7 +258,7 @@ public class OrderDaoImpl implements OrderDao {
 
     @Override
     public void deleteById(Long id) throws SQLException {
-        try (Connection conn = ConnectionPool.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement ps = conn.prepareStatement(DELETE_SQL)) {
             ps.setLong(1, id);
             ps.executeUpdate();
@@ -1,10 +1,11 @@
 package edu.epam.fop.dao.impl;
 
-import edu.epam.fop.dao.ConnectionPool;
 import edu.epam.fop.dao.RoleDao;
 import edu.epam.fop.model.Role;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
+import javax.sql.DataSource;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
@@ -20,9 +21,16 @@ public class RoleDaoImpl implements RoleDao {
     private static final String DELETE_SQL = "DELETE FROM roles WHERE id=?";
     private static final String SELECT_BY_USER_SQL = "SELECT r.id, r.name FROM roles r JOIN user_roles ur ON r.id = ur.role_id WHERE ur.user_id=?";
 
+    private final DataSource dataSource;
+
+    @Autowired
+    public RoleDaoImpl(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
     @Override
     public Long save(Role role) throws SQLException {
-        try (Connection conn = ConnectionPool.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement ps = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
             ps.setString(1, role.getName());
             ps.executeUpdate();
@@ -37,7 +45,7 @@ public class RoleDaoImpl implements RoleDao {
 
     @Override
     public Role findById(Long id) throws SQLException {
-        try (Connection conn = ConnectionPool.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement ps = conn.prepareStatement(SELECT_BY_ID_SQL)) {
             ps.setLong(1, id);
             try (ResultSet rs = ps.executeQuery()) {
@@ -51,7 +59,7 @@ public class RoleDaoImpl implements RoleDao {
 
     @Override
     public Role findByName(String name) throws SQLException {
-        try (Connection conn = ConnectionPool.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement ps = conn.prepareStatement(SELECT_BY_NAME_SQL)) {
             ps.setString(1, name);
             try (ResultSet rs = ps.executeQuery()) {
@@ -66,7 +74,7 @@ public class RoleDaoImpl implements RoleDao {
     @Override
     public List<Role> findAll() throws SQLException {
         List<Role> list = new ArrayList<>();
-        try (Connection conn = ConnectionPool.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement ps = conn.prepareStatement(SELECT_ALL_SQL);
              ResultSet rs = ps.executeQuery()) {
             while (rs.next()) {
@@ -78,7 +86,7 @@ public class RoleDaoImpl implements RoleDao {
 
     @Override
     public void update(Role role) throws SQLException {
-        try (Connection conn = ConnectionPool.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement ps = conn.prepareStatement(UPDATE_SQL)) {
             ps.setString(1, role.getName());
             ps.setLong(2, role.getId());
@@ -88,7 +96,7 @@ public class RoleDaoImpl implements RoleDao {
 
     @Override
     public void deleteById(Long id) throws SQLException {
-        try (Connection conn = ConnectionPool.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement ps = conn.prepareStatement(DELETE_SQL)) {
             ps.setLong(1, id);
             ps.executeUpdate();
@@ -98,7 +106,7 @@ public class RoleDaoImpl implements RoleDao {
     @Override
     public List<Role> findByUserId(Long userId) throws SQLException {
         List<Role> list = new ArrayList<>();
-        try (Connection conn = ConnectionPool.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement ps = conn.prepareStatement(SELECT_BY_USER_SQL)) {
             ps.setLong(1, userId);
             try (ResultSet rs = ps.executeQuery()) {
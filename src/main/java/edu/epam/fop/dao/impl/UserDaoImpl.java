@@ -1,10 +1,11 @@
 package edu.epam.fop.dao.impl;
 
-import edu.epam.fop.dao.ConnectionPool;
 import edu.epam.fop.dao.UserDao;
 import edu.epam.fop.model.User;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
+import javax.sql.DataSource;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
@@ -16,14 +17,22 @@ public class UserDaoImpl implements UserDao {
     private static final String SELECT_BY_ID_SQL = "SELECT id, username, password, blocked FROM users WHERE id=?";
     private static final String SELECT_BY_USERNAME_SQL = "SELECT id, username, password, blocked FROM users WHERE username=?";
     private static final String SELECT_ALL_SQL = "SELECT id, username, password, blocked FROM users";
-    private static final String SELECT_PAGED_SQL = "SELECT id, username, password, blocked FROM users LIMIT ? OFFSET ?";
+    private static final String SELECT_AFTER_SQL = "SELECT id, username, password, blocked FROM users WHERE id > ? ORDER BY id LIMIT ?";
     private static final String COUNT_SQL = "SELECT COUNT(*) FROM users";
     private static final String UPDATE_SQL = "UPDATE users SET username=?, password=?, blocked=? WHERE id=?";
+    private static final String UPDATE_PASSWORD_SQL = "UPDATE users SET password=? WHERE id=?";
     private static final String DELETE_SQL = "DELETE FROM users WHERE id=?";
 
+    private final DataSource dataSource;
+
+    @Autowired
+    public UserDaoImpl(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
     @Override
     public Long save(User user) throws SQLException {
-        try (Connection conn = ConnectionPool.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement ps = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
             ps.setString(1, user.getUsername());
             ps.setString(2, user.getPassword());
@@ -40,7 +49,7 @@ public class UserDaoImpl implements UserDao {
 
     @Override
     public User findById(Long id) throws SQLException {
-        try (Connection conn = ConnectionPool.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement ps = conn.prepareStatement(SELECT_BY_ID_SQL)) {
             ps.setLong(1, id);
             try (ResultSet rs = ps.executeQuery()) {
@@ -54,7 +63,7 @@ public class UserDaoImpl implements UserDao {
 
     @Override
     public User findByUsername(String username) throws SQLException {
-        try (Connection conn = ConnectionPool.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement ps = conn.prepareStatement(SELECT_BY_USERNAME_SQL)) {
             ps.setString(1, username);
             try (ResultSet rs = ps.executeQuery()) {
@@ -69,7 +78,7 @@ public class UserDaoImpl implements UserDao {
     @Override
     public List<User> findAll() throws SQLException {
         List<User> list = new ArrayList<>();
-        try (Connection conn = ConnectionPool.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement ps = conn.prepareStatement(SELECT_ALL_SQL);
              ResultSet rs = ps.executeQuery()) {
             while (rs.next()) {
@@ -81,7 +90,7 @@ public class UserDaoImpl implements UserDao {
 
     @Override
     public void update(User user) throws SQLException {
-        try (Connection conn = ConnectionPool.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement ps = conn.prepareStatement(UPDATE_SQL)) {
             ps.setString(1, user.getUsername());
             ps.setString(2, user.getPassword());
@@ -91,9 +100,19 @@ public class UserDaoImpl implements UserDao {
         }
     }
 
+    @Override
+    public void updatePassword(Long id, String encodedPassword) throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(UPDATE_PASSWORD_SQL)) {
+            ps.setString(1, encodedPassword);
+            ps.setLong(2, id);
+            ps.executeUpdate();
+        }
+    }
+
     @Override
     public void deleteById(Long id) throws SQLException {
-        try (Connection conn = ConnectionPool.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement ps = conn.prepareStatement(DELETE_SQL)) {
             ps.setLong(1, id);
             ps.executeUpdate();
@@ -101,12 +120,12 @@ public class UserDaoImpl implements UserDao {
     }
 
     @Override
-    public List<User> findPaged(int offset, int limit) throws SQLException {
+    public List<User> findAfter(Long afterId, int limit) throws SQLException {
         List<User> list = new ArrayList<>();
-        try(Connection conn=ConnectionPool.getConnection();
-            PreparedStatement ps = conn.prepareStatement(SELECT_PAGED_SQL)){
-            ps.setInt(1, limit);
-            ps.setInt(2, offset);
+        try(Connection conn=dataSource.getConnection();
+            PreparedStatement ps = conn.prepareStatement(SELECT_AFTER_SQL)){
+            ps.setLong(1, afterId != null ? afterId : 0L);
+            ps.setInt(2, limit);
             try(ResultSet rs=ps.executeQuery()){
                 while(rs.next()) list.add(mapRow(rs));
             }
@@ -116,7 +135,7 @@ public class UserDaoImpl implements UserDao {
 
     @Override
     public long countAll() throws SQLException {
-        try(Connection conn=ConnectionPool.getConnection();
+        try(Connection conn=dataSource.getConnection();
             PreparedStatement ps = conn.prepareStatement(COUNT_SQL);
             ResultSet rs = ps.executeQuery()){
             if(rs.next()) return rs.getLong(1);
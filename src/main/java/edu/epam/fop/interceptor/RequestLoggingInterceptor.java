@@ -1,40 +1,79 @@
 package edu.epam.fop.interceptor;
 
+import edu.epam.fop.metrics.RequestMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
 import org.springframework.web.servlet.ModelAndView;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+/**
+ * Times every request into {@link RequestMetrics}, keyed by the matched handler pattern, and the
+ * rendering of its view (between {@code postHandle} and {@code afterCompletion}) keyed by template
+ * name. The per-request log line is only written at DEBUG.
+ * <p>
+ * A {@code Callable} handler passes through {@code preHandle} twice, once on the container thread
+ * and again when the result is dispatched back. The request is timed from the first pass, so its
+ * latency includes the wait for an executor thread.
+ */
 @Component
 public class RequestLoggingInterceptor implements HandlerInterceptor {
 
     private static final Logger log = LoggerFactory.getLogger(RequestLoggingInterceptor.class);
 
     private static final String START_TIME_ATTR = "requestStartTime";
+    private static final String RENDER_START_ATTR = "viewRenderStartTime";
+    private static final String VIEW_NAME_ATTR = "renderedViewName";
+
+    private final RequestMetrics metrics;
+
+    @Autowired
+    public RequestLoggingInterceptor(RequestMetrics metrics) {
+        this.metrics = metrics;
+    }
 
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
-        request.setAttribute(START_TIME_ATTR, System.currentTimeMillis());
+        if (request.getAttribute(START_TIME_ATTR) == null) {
+            request.setAttribute(START_TIME_ATTR, System.nanoTime());
+        }
         return true;
     }
 
     @Override
     public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
                            @Nullable ModelAndView modelAndView) {
-        // no-op
+        // redirects and handlers that write the response themselves render no template
+        String viewName = modelAndView != null ? modelAndView.getViewName() : null;
+        if (viewName != null && !viewName.startsWith("redirect:") && !viewName.startsWith("forward:")) {
+            request.setAttribute(VIEW_NAME_ATTR, viewName);
+            request.setAttribute(RENDER_START_ATTR, System.nanoTime());
+        }
     }
 
     @Override
     public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, @Nullable Exception ex) {
+        long now = System.nanoTime();
+        Long renderStart = (Long) request.getAttribute(RENDER_START_ATTR);
+        if (renderStart != null) {
+            metrics.recordRender((String) request.getAttribute(VIEW_NAME_ATTR), now - renderStart);
+        }
         Long start = (Long) request.getAttribute(START_TIME_ATTR);
         if (start != null) {
-            long duration = System.currentTimeMillis() - start;
-            log.info("{} {} -> {} ({} ms)", request.getMethod(), request.getRequestURI(), response.getStatus(), duration);
+            long duration = now - start;
+            // an exception that escaped the handler becomes a 500 even if no status was set yet
+            int status = ex != null && response.getStatus() < 400 ? 500 : response.getStatus();
+            String pattern = (String) request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            metrics.record(request.getMethod(), pattern, status, duration);
+            if (log.isDebugEnabled()) {
+                log.debug("{} {} -> {} ({} ms)", request.getMethod(), request.getRequestURI(), status, duration / 1_000_000);
+            }
         }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,142 @@
+package edu.epam.fop.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with log-linear buckets, in the style of HdrHistogram.
+ * <p>
+ * Durations are counted in microseconds. Below 16 microseconds every microsecond has its own
+ * bucket; above, each power of two is split into eight equal buckets, so any recorded value is known
+ * to within 12.5% up to about 38 hours. Recording is a couple of shifts and a few atomic increments,
+ * with no allocation, so it is cheap enough to run on every call. Percentiles are reported as the
+ * upper bound of the bucket they fall into.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BITS = 3;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    // values below this many microseconds get one bucket each
+    private static final int LINEAR_LIMIT = SUB_COUNT * 2;
+    private static final int FIRST_EXPONENT = SUB_BITS + 1;
+    private static final int MAX_EXPONENT = 36;
+    private static final long MAX_MICROS = (1L << (MAX_EXPONENT + 1)) - 1;
+    private static final int BUCKETS = LINEAR_LIMIT + (MAX_EXPONENT - FIRST_EXPONENT + 1) * SUB_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        counts.incrementAndGet(bucketOf(Math.min(nanos / 1000, MAX_MICROS)));
+        count.increment();
+        sumNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public double getSumMillis() {
+        return sumNanos.sum() / 1_000_000.0;
+    }
+
+    public double getAverageMillis() {
+        long n = count.sum();
+        return n == 0 ? 0 : sumNanos.sum() / 1_000_000.0 / n;
+    }
+
+    public double getMaxMillis() {
+        return maxNanos.get() / 1_000_000.0;
+    }
+
+    public double getP50Millis() {
+        return percentileMillis(0.50);
+    }
+
+    public double getP95Millis() {
+        return percentileMillis(0.95);
+    }
+
+    public double getP99Millis() {
+        return percentileMillis(0.99);
+    }
+
+    /**
+     * Upper bound of the bucket holding the given quantile, capped at the maximum recorded value.
+     */
+    public double percentileMillis(double quantile) {
+        long[] snapshot = snapshot();
+        long total = 0;
+        for (long c : snapshot) {
+            total += c;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(upperBoundMicros(i) / 1000.0, getMaxMillis());
+            }
+        }
+        return getMaxMillis();
+    }
+
+    /**
+     * Number of recordings whose bucket lies entirely at or below each bound, for exporting the
+     * histogram with coarser, fixed buckets. {@code boundsMillis} must be ascending.
+     */
+    public long[] cumulativeCounts(double[] boundsMillis) {
+        long[] snapshot = snapshot();
+        long[] cumulative = new long[boundsMillis.length];
+        int b = 0;
+        long running = 0;
+        for (int i = 0; i < snapshot.length && b < boundsMillis.length; i++) {
+            double upper = upperBoundMicros(i) / 1000.0;
+            while (b < boundsMillis.length && upper > boundsMillis[b]) {
+                cumulative[b++] = running;
+            }
+            running += snapshot[i];
+        }
+        while (b < boundsMillis.length) {
+            cumulative[b++] = running;
+        }
+        return cumulative;
+    }
+
+    private long[] snapshot() {
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+        }
+        return snapshot;
+    }
+
+    static int bucketOf(long micros) {
+        if (micros < LINEAR_LIMIT) {
+            return (int) micros;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        int sub = (int) (micros >>> (exponent - SUB_BITS)) - SUB_COUNT;
+        return LINEAR_LIMIT + (exponent - FIRST_EXPONENT) * SUB_COUNT + sub;
+    }
+
+    // exclusive upper bound of a bucket in microseconds
+    static long upperBoundMicros(int bucket) {
+        if (bucket < LINEAR_LIMIT) {
+            return bucket + 1;
+        }
+        int exponent = FIRST_EXPONENT + (bucket - LINEAR_LIMIT) / SUB_COUNT;
+        int sub = (bucket - LINEAR_LIMIT) % SUB_COUNT;
+        return (long) (SUB_COUNT + sub + 1) << (exponent - SUB_BITS);
+    }
+}
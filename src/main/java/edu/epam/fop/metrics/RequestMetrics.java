@@ -0,0 +1,102 @@
+package edu.epam.fop.metrics;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Request latency per handler mapping pattern and HTTP method, with response counts per status class,
+ * and view rendering time per template.
+ * <p>
+ * Routes are keyed by the matched {@code @RequestMapping} pattern such as {@code /books/{id}}, so
+ * the number of series stays bounded however many distinct URIs are requested. Recording a request
+ * does two map lookups on strings the container already holds and allocates nothing once the route
+ * has been seen.
+ */
+@Component
+public class RequestMetrics {
+
+    /** Route label for requests no handler mapping matched. */
+    public static final String UNMATCHED = "UNMATCHED";
+
+    // pattern -> method -> route
+    private final Map<String, Map<String, Route>> routes = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> renders = new ConcurrentHashMap<>();
+
+    public void record(String method, String pattern, int status, long nanos) {
+        String p = pattern != null ? pattern : UNMATCHED;
+        Map<String, Route> byMethod = routes.get(p);
+        if (byMethod == null) {
+            byMethod = routes.computeIfAbsent(p, k -> new ConcurrentHashMap<>());
+        }
+        Route route = byMethod.get(method);
+        if (route == null) {
+            route = byMethod.computeIfAbsent(method, m -> new Route(m, p));
+        }
+        route.histogram.record(nanos);
+        int statusClass = status / 100;
+        route.statusClasses[statusClass >= 1 && statusClass <= 5 ? statusClass - 1 : 4].increment();
+    }
+
+    public void recordRender(String template, long nanos) {
+        LatencyHistogram histogram = renders.get(template);
+        if (histogram == null) {
+            histogram = renders.computeIfAbsent(template, t -> new LatencyHistogram());
+        }
+        histogram.record(nanos);
+    }
+
+    /** Rendering time of each view rendered so far, by template name. */
+    public Map<String, LatencyHistogram> getTemplateRenders() {
+        return new TreeMap<>(renders);
+    }
+
+    /** All routes seen so far, ordered by pattern and method. */
+    public List<Route> getRoutes() {
+        List<Route> list = new ArrayList<>();
+        for (Map<String, Route> byMethod : routes.values()) {
+            list.addAll(byMethod.values());
+        }
+        list.sort(Comparator.comparing(Route::getPattern).thenComparing(Route::getMethod));
+        return list;
+    }
+
+    public static final class Route {
+        private final String method;
+        private final String pattern;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        // responses per status class 1xx..5xx
+        private final LongAdder[] statusClasses = new LongAdder[5];
+
+        Route(String method, String pattern) {
+            this.method = method;
+            this.pattern = pattern;
+            for (int i = 0; i < statusClasses.length; i++) {
+                statusClasses[i] = new LongAdder();
+            }
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public String getPattern() {
+            return pattern;
+        }
+
+        public LatencyHistogram getHistogram() {
+            return histogram;
+        }
+
+        /** Responses with a status of {@code statusClass}xx, for a class from 1 to 5. */
+        public long getStatusCount(int statusClass) {
+            return statusClasses[statusClass - 1].sum();
+        }
+    }
+}
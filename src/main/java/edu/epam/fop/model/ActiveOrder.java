@@ -0,0 +1,51 @@
+package edu.epam.fop.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * A pending or issued order as shown on the reader monitor, already joined to its copy and book.
+ */
+public class ActiveOrder {
+
+    private final Long orderId;
+    private final OrderStatus status;
+    private final LocalDateTime createdAt;
+    private final LocalDate dueDate;
+    private final String inventoryNumber;
+    private final String title;
+
+    public ActiveOrder(Long orderId, OrderStatus status, LocalDateTime createdAt, LocalDate dueDate,
+                       String inventoryNumber, String title) {
+        this.orderId = orderId;
+        this.status = status;
+        this.createdAt = createdAt;
+        this.dueDate = dueDate;
+        this.inventoryNumber = inventoryNumber;
+        this.title = title;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDate getDueDate() {
+        return dueDate;
+    }
+
+    public String getInventoryNumber() {
+        return inventoryNumber;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+}
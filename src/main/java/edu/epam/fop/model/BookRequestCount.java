@@ -0,0 +1,29 @@
+package edu.epam.fop.model;
+
+/**
+ * Number of orders ever placed for a book; one row of the "most requested" report.
+ */
+public class BookRequestCount {
+
+    private final Long bookId;
+    private final String title;
+    private final long requests;
+
+    public BookRequestCount(Long bookId, String title, long requests) {
+        this.bookId = bookId;
+        this.title = title;
+        this.requests = requests;
+    }
+
+    public Long getBookId() {
+        return bookId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public long getRequests() {
+        return requests;
+    }
+}
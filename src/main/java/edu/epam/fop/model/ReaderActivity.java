@@ -0,0 +1,31 @@
+package edu.epam.fop.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A reader and their pending and issued orders; one row of the librarian's reader monitor.
+ */
+public class ReaderActivity {
+
+    private final Long userId;
+    private final String username;
+    private final List<ActiveOrder> orders = new ArrayList<>();
+
+    public ReaderActivity(Long userId, String username) {
+        this.userId = userId;
+        this.username = username;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public List<ActiveOrder> getOrders() {
+        return orders;
+    }
+}
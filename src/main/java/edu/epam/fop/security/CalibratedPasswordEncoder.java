@@ -0,0 +1,179 @@
+package edu.epam.fop.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt {@link PasswordEncoder} with a fixed work factor, running every hash on a small dedicated
+ * executor.
+ * <p>
+ * The executor has one thread per core and a bounded queue. Hashing therefore never uses more CPU
+ * than the machine has, and when a login burst fills the queue further attempts fail fast with an
+ * {@link AuthenticationServiceException} instead of tying up servlet threads that catalogue requests
+ * need. {@link #upgradeEncoding(String)} reports hashes made with a lower cost, so Spring Security
+ * rehashes them on the next successful login. Hashes with a higher cost are left alone: nodes that
+ * calibrated to different costs would otherwise rehash each other's hashes on every login.
+ */
+public class CalibratedPasswordEncoder implements PasswordEncoder, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(CalibratedPasswordEncoder.class);
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("\\A\\$2[aby]?\\$(\\d\\d)\\$");
+
+    static final int MIN_STRENGTH = 4;
+    static final int MAX_STRENGTH = 31;
+
+    private final BCryptPasswordEncoder delegate;
+    private final int strength;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+
+    private final LongAdder hashes = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public CalibratedPasswordEncoder(int strength, int threads, int queueCapacity, long timeoutMillis) {
+        this.strength = strength;
+        this.delegate = new BCryptPasswordEncoder(strength);
+        this.timeoutMillis = timeoutMillis;
+        AtomicInteger seq = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread t = new Thread(r, "password-hasher-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    /**
+     * Picks the highest BCrypt cost whose hash still takes at most {@code targetMillis} on this
+     * machine, clamped to {@code [minStrength, maxStrength]}. Each extra cost step doubles the work,
+     * so one measurement at a probe cost is enough to extrapolate.
+     */
+    public static int calibrate(long targetMillis, int minStrength, int maxStrength) {
+        int probe = Math.max(MIN_STRENGTH, Math.min(10, maxStrength));
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(probe);
+        encoder.encode("calibration"); // warm up
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            encoder.encode("calibration");
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        double millis = best / 1_000_000.0;
+        int cost = probe;
+        while (cost < maxStrength && millis * 2 <= targetMillis) {
+            millis *= 2;
+            cost++;
+        }
+        while (cost > minStrength && millis > targetMillis) {
+            millis /= 2;
+            cost--;
+        }
+        cost = Math.max(minStrength, Math.min(maxStrength, cost));
+        log.info("BCrypt calibrated to cost {} (~{} ms per hash, target {} ms)", cost, Math.round(millis), targetMillis);
+        return cost;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher m = BCRYPT_COST.matcher(encodedPassword);
+        return !m.find() || Integer.parseInt(m.group(1)) < strength;
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    /** Hash requests waiting for a free hashing thread. */
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public long getCompleted() {
+        return hashes.sum();
+    }
+
+    /** Requests turned away because the queue was full or the wait timed out. */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public double getAverageHashMillis() {
+        long n = hashes.sum();
+        return n == 0 ? 0 : hashNanos.sum() / 1_000_000.0 / n;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long start = System.nanoTime();
+                try {
+                    return task.call();
+                } finally {
+                    hashes.increment();
+                    hashNanos.add(System.nanoTime() - start);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new AuthenticationServiceException("Password hashing is overloaded, try again later", e);
+        }
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            throw new AuthenticationServiceException("Password hashing timed out", e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new AuthenticationServiceException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
@@ -1,15 +1,39 @@
 package edu.epam.fop.security;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 
 @Configuration
 public class CryptoConfig {
 
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    // 0 = calibrate at startup to bcrypt.targetMillis
+    @Value("${security.bcrypt.strength:0}")
+    private int strength;
+
+    @Value("${security.bcrypt.targetMillis:250}")
+    private long targetMillis;
+
+    @Value("${security.bcrypt.minStrength:10}")
+    private int minStrength;
+
+    @Value("${security.bcrypt.maxStrength:14}")
+    private int maxStrength;
+
+    // 0 = one hashing thread per core
+    @Value("${security.bcrypt.threads:0}")
+    private int threads;
+
+    @Value("${security.bcrypt.queueCapacity:64}")
+    private int queueCapacity;
+
+    @Value("${security.bcrypt.timeoutMillis:10000}")
+    private long timeoutMillis;
+
+    @Bean(destroyMethod = "close")
+    public CalibratedPasswordEncoder passwordEncoder() {
+        int cost = strength > 0 ? strength : CalibratedPasswordEncoder.calibrate(targetMillis, minStrength, maxStrength);
+        int n = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new CalibratedPasswordEncoder(cost, n, queueCapacity, timeoutMillis);
     }
-} 
\ No newline at end of file
+}
@@ -2,37 +2,102 @@ package edu.epam.fop.security;
 
 import edu.epam.fop.model.Role;
 import edu.epam.fop.model.User;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
 import java.util.stream.Collectors;
 
+/**
+ * Authenticated principal. Carries the user id and role names resolved at login, so request
+ * handlers never have to look the user up again.
+ */
 public class CustomUserDetails implements UserDetails {
 
-    private final User user;
+    private final Long id;
+    private final String username;
+    private final String password;
+    private final boolean blocked;
+    private final Set<String> roleNames;
+    private final Set<GrantedAuthority> authorities;
 
     public CustomUserDetails(User user) {
-        this.user = user;
+        this.id = user.getId();
+        this.username = user.getUsername();
+        this.password = user.getPassword();
+        this.blocked = user.isBlocked();
+        this.roleNames = Collections.unmodifiableSet(user.getRoles().stream()
+                .map(Role::getName)
+                .collect(Collectors.toSet()));
+        this.authorities = Collections.unmodifiableSet(roleNames.stream()
+                .map(r -> new SimpleGrantedAuthority("ROLE_" + r))
+                .collect(Collectors.toSet()));
+    }
+
+    private CustomUserDetails(CustomUserDetails source, String password) {
+        this.id = source.id;
+        this.username = source.username;
+        this.password = password;
+        this.blocked = source.blocked;
+        this.roleNames = source.roleNames;
+        this.authorities = source.authorities;
+    }
+
+    /**
+     * Copy of this principal with a new password hash, e.g. after a rehash on login.
+     */
+    public CustomUserDetails withPassword(String password) {
+        return new CustomUserDetails(this, password);
+    }
+
+    /**
+     * Principal of the current request, or {@code null} if the request is not authenticated.
+     */
+    public static CustomUserDetails current() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.getPrincipal() instanceof CustomUserDetails) {
+            return (CustomUserDetails) auth.getPrincipal();
+        }
+        return null;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Set<String> getRoleNames() {
+        return roleNames;
+    }
+
+    /**
+     * Lightweight {@link User} reference (id and username) for service calls that take a user.
+     */
+    public User toUser() {
+        return User.builder()
+                .id(id)
+                .username(username)
+                .blocked(blocked)
+                .build();
     }
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return user.getRoles().stream()
-                .map(Role::getName)
-                .map(r -> new SimpleGrantedAuthority("ROLE_" + r))
-                .collect(Collectors.toSet());
+        return authorities;
     }
 
     @Override
     public String getPassword() {
-        return user.getPassword();
+        return password;
     }
 
     @Override
     public String getUsername() {
-        return user.getUsername();
+        return username;
     }
 
     @Override
@@ -42,7 +107,7 @@ public class CustomUserDetails implements UserDetails {
 
     @Override
     public boolean isAccountNonLocked() {
-        return !user.isBlocked();
+        return !blocked;
     }
 
     @Override
@@ -52,6 +117,6 @@ public class CustomUserDetails implements UserDetails {
 
     @Override
     public boolean isEnabled() {
-        return !user.isBlocked();
+        return !blocked;
     }
-} 
\ No newline at end of file
+}
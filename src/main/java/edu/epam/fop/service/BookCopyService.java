@@ -3,22 +3,36 @@ package edu.epam.fop.service;
 import edu.epam.fop.model.BookCopy;
 import edu.epam.fop.dao.BookCopyDao;
 import edu.epam.fop.dao.OrderDao;
+import edu.epam.fop.dao.RowCursor;
 import edu.epam.fop.model.Order;
 import edu.epam.fop.model.OrderStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.SQLException;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Service
-public class BookCopyService {
+public class BookCopyService implements InitializingBean {
+
+    private static final String UNIQUE_VIOLATION = "23505";
+    private static final long MIN_FILTER_CAPACITY = 10_000;
+    private static final double FILTER_FALSE_POSITIVE_RATE = 0.01;
 
     private final BookCopyDao copyDao;
     private final OrderDao orderDao;
 
+    // In-memory pre-check for inventory numbers; null until built (or if building failed)
+    private volatile BloomFilter inventoryFilter;
+    // a lock rather than a monitor: the rebuild queries the database, which would pin a virtual thread
+    private final ReentrantLock filterRebuildLock = new ReentrantLock();
+
     private static final Logger log = LoggerFactory.getLogger(BookCopyService.class);
 
     @Autowired
@@ -45,14 +59,42 @@ public class BookCopyService {
         } catch(Exception e){ throw new RuntimeException(e);}
     }
 
+    @Override
+    public void afterPropertiesSet() {
+        try {
+            if (!copyDao.hasUniqueInventoryNumber()) {
+                log.error("book_copies.inventory_number has no unique index: concurrent saves can create duplicate "
+                        + "inventory numbers. Apply db/indexes.sql (see README) or add a UNIQUE constraint.");
+            }
+        } catch (Exception e) {
+            log.warn("Could not check the unique index on inventory numbers", e);
+        }
+        try {
+            rebuildInventoryFilter();
+        } catch (Exception e) {
+            log.warn("Could not build inventory number filter, duplicate checks will query the database", e);
+        }
+    }
+
+    /**
+     * Saves a new copy.
+     * @throws IllegalStateException if another copy already has the same inventory number
+     */
     @Transactional
     public BookCopy save(BookCopy copy) {
         try {
             copyDao.save(copy);
-            return copy;
-        } catch(Exception e){
+        } catch(SQLException e){
+            if (UNIQUE_VIOLATION.equals(e.getSQLState())) {
+                throw new IllegalStateException("Inventory number already exists: " + copy.getInventoryNumber(), e);
+            }
             throw new RuntimeException(e);
         }
+        BloomFilter filter = inventoryFilter;
+        if (filter != null && copy.getInventoryNumber() != null) {
+            filter.put(copy.getInventoryNumber());
+        }
+        return copy;
     }
 
     public List<BookCopy> findAll() {
@@ -63,12 +105,93 @@ public class BookCopyService {
         }
     }
 
+    /**
+     * All copies with book titles and current borrowers, read from the database while the caller
+     * iterates. The cursor holds a pooled connection until it is exhausted or closed.
+     */
+    public RowCursor<BookCopy> streamAll() {
+        try {
+            return copyDao.streamAll();
+        } catch(Exception e){
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Advisory pre-check whether a copy with the given inventory number exists. Numbers the Bloom
+     * filter has never seen are answered from memory; only probable duplicates are confirmed in the
+     * database. The filter only knows the numbers saved through this node since it was built, so a
+     * {@code false} can miss a copy another node has just added. Only the unique index on
+     * {@code inventory_number} rules out duplicates; startup logs an error if it is missing. Callers
+     * must still handle its violation on insert (see {@link #save(BookCopy)} and
+     * {@link #isUniqueViolation(Throwable)}).
+     */
     public boolean existsByInventoryNumber(String inventoryNumber) {
         try {
-            return copyDao.findAll().stream()
-                    .anyMatch(c -> inventoryNumber.equals(c.getInventoryNumber()));
+            BloomFilter filter = inventoryFilter;
+            if (filter != null && filter.isSaturated()) {
+                filter = rebuildInventoryFilter();
+            }
+            if (filter != null && !filter.mightContain(inventoryNumber)) {
+                return false;
+            }
+            return copyDao.existsByInventoryNumber(inventoryNumber);
         } catch(Exception e){
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * Records inventory numbers of copies inserted outside {@link #save(BookCopy)}, e.g. by a bulk import.
+     */
+    void registerInventoryNumbers(Collection<String> inventoryNumbers) {
+        BloomFilter filter = inventoryFilter;
+        if (filter != null) {
+            inventoryNumbers.forEach(filter::put);
+        }
+    }
+
+    /**
+     * Whether {@code e} or one of its causes is a unique-constraint violation, such as a duplicate
+     * inventory number that the advisory pre-check did not catch.
+     */
+    static boolean isUniqueViolation(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException) {
+                for (SQLException ex = (SQLException) cause; ex != null; ex = ex.getNextException()) {
+                    if (UNIQUE_VIOLATION.equals(ex.getSQLState())) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    public BookCopy findByInventoryNumber(String inventoryNumber) {
+        try {
+            return copyDao.findByInventoryNumber(inventoryNumber);
+        } catch(Exception e){
+            throw new RuntimeException(e);
+        }
+    }
+
+    // Sized for twice the current catalogue so it only needs rebuilding once that many copies exist
+    private BloomFilter rebuildInventoryFilter() throws SQLException {
+        filterRebuildLock.lock();
+        try {
+            BloomFilter current = inventoryFilter;
+            if (current != null && !current.isSaturated()) {
+                return current;
+            }
+            List<String> numbers = copyDao.findAllInventoryNumbers();
+            BloomFilter filter = new BloomFilter(Math.max(MIN_FILTER_CAPACITY, numbers.size() * 2L), FILTER_FALSE_POSITIVE_RATE);
+            numbers.forEach(filter::put);
+            inventoryFilter = filter;
+            log.info("Inventory number filter built with {} entries", numbers.size());
+            return filter;
+        } finally {
+            filterRebuildLock.unlock();
+        }
+    }
 } 
\ No newline at end of file
@@ -1,80 +1,208 @@
 package edu.epam.fop.service;
 
+import edu.epam.fop.annotation.ReadReplica;
+import edu.epam.fop.annotation.ReadYourWrites;
 import edu.epam.fop.model.Book;
+import edu.epam.fop.model.BookCopy;
 import edu.epam.fop.dao.BookDao;
 import edu.epam.fop.dao.BookCopyDao;
+import edu.epam.fop.dao.RowCursor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class BookService {
 
+    private static final String DATABASE_BACKEND = "database";
+
     private final BookDao bookDao;
     private final BookCopyDao copyDao;
+    private final CatalogSearchIndex searchIndex;
+    // "memory" answers filtered searches from CatalogSearchIndex, "database" with LIKE queries
+    private final boolean databaseSearch;
 
     private static final Logger log = LoggerFactory.getLogger(BookService.class);
 
     @Autowired
-    public BookService(BookDao bookDao, BookCopyDao copyDao) {
+    public BookService(BookDao bookDao, BookCopyDao copyDao, CatalogSearchIndex searchIndex,
+                       @Value("${search.backend:memory}") String searchBackend) {
         this.bookDao = bookDao;
         this.copyDao = copyDao;
+        this.searchIndex = searchIndex;
+        this.databaseSearch = DATABASE_BACKEND.equalsIgnoreCase(searchBackend.trim());
     }
 
     public List<Book> findAll() {
         try {
             List<Book> list = bookDao.findAll();
-            for (Book b: list) {
-                try { b.setCopies(copyDao.findByBookId(b.getId()));} catch(Exception ex){ log.warn("Failed to load copies for book {}", b.getId(), ex);}
-            }
+            attachCopies(list);
             return list;
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
     }
 
-    public List<Book> searchByTitle(String title) {
-        if (title == null || title.isBlank()) {
-            return findAll();
+    /**
+     * All books, read from the database while the caller iterates, without their copies. The
+     * cursor holds a pooled connection until it is exhausted or closed.
+     */
+    public RowCursor<Book> streamAll() {
+        try {
+            return bookDao.streamAll();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
         }
+    }
+
+    /**
+     * Loads a single book, optionally with its copies; returns {@code null} if it does not exist.
+     */
+    public Book findById(Long id, boolean withCopies) {
         try {
-            return findAll().stream()
-                    .filter(b -> b.getTitle()!=null && b.getTitle().toLowerCase().contains(title.toLowerCase()))
-                    .toList();
-        } catch (Exception e) { throw new RuntimeException(e);}
+            Book book = bookDao.findById(id);
+            if (book != null && withCopies) {
+                book.setCopies(copyDao.findByBookId(id));
+            }
+            return book;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @ReadReplica
+    public List<Book> searchByTitle(String title) {
+        return search(title, null);
     }
 
+    @ReadReplica
     public List<Book> search(String title, String author) {
-        boolean hasTitle = title != null && !title.isBlank();
-        boolean hasAuthor = author != null && !author.isBlank();
         try {
-            return findAll().stream()
-                    .filter(b -> (!hasTitle || (b.getTitle()!=null && b.getTitle().toLowerCase().contains(title.toLowerCase()))) &&
-                                 (!hasAuthor || (b.getAuthor()!=null && b.getAuthor().toLowerCase().contains(author.toLowerCase()))))
-                    .toList();
+            List<Book> list = findAfter(title, author, null, Integer.MAX_VALUE);
+            attachCopies(list);
+            return list;
         } catch (Exception e) { throw new RuntimeException(e);}
     }
 
     @Transactional
+    @ReadYourWrites
     public Book save(Book book) {
         try {
             Long id = bookDao.save(book);
             if (id!=null) { book.setId(id);} else {}
+            afterCommit(() -> searchIndex.put(book));
             return book;
         } catch (Exception e) { throw new RuntimeException(e);}
     }
 
-    public List<Book> searchPaged(String title, String author, int page, int size){
+    @Transactional
+    @ReadYourWrites
+    public Book update(Book book) {
         try {
-            int offset = page*size;
-            List<Book> list = bookDao.findPaged(offset,size,title,author);
-            for(Book b:list){
-                try { b.setCopies(copyDao.findByBookId(b.getId()));}catch(Exception ex){ log.warn("Failed to load copies for book {}", b.getId(), ex);}
-            }
-            return list;
+            bookDao.update(book);
+            afterCommit(() -> searchIndex.put(book));
+            return book;
+        } catch (Exception e) { throw new RuntimeException(e);}
+    }
+
+    @Transactional
+    @ReadYourWrites
+    public void delete(Long id) {
+        try {
+            bookDao.deleteById(id);
+            afterCommit(() -> searchIndex.remove(id));
+        } catch (Exception e) { throw new RuntimeException(e);}
+    }
+
+    /**
+     * One page of books matching the title and author filters, continuing after {@code cursor}
+     * ({@code null} = first page). Filtered searches are ranked by the in-memory
+     * {@link CatalogSearchIndex} and the page is then loaded by id; unfiltered listings, the
+     * {@code database} backend and an index that failed to build use a keyset query in id order.
+     */
+    @ReadReplica
+    public CursorPage<Book> searchPage(String title, String author, String cursor, int size){
+        try {
+            PageCursor after = PageCursor.decode(cursor);
+            List<Book> rows = findAfter(title, author, after != null ? after.getId() : null, size + 1);
+            CursorPage<Book> page = CursorPage.of(rows, size, b -> PageCursor.afterId(b.getId()));
+            attachCopies(page.getItems());
+            return page;
         }catch(Exception e){ throw new RuntimeException(e);}    }
+
+    private List<Book> findAfter(String title, String author, Long afterId, int limit) throws Exception {
+        boolean filtered = (title != null && !title.isBlank()) || (author != null && !author.isBlank());
+        if (filtered && !databaseSearch && searchIndex.isReady()) {
+            return findRanked(searchIndex.search(title, author, afterId, limit));
+        }
+        return bookDao.findAfter(afterId, limit, title, author);
+    }
+
+    // the index is shared by all requests, so it must not show a write that may still roll back
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    // loads the books and keeps them in the order of the ranked ids
+    private List<Book> findRanked(List<Long> ids) throws Exception {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Book> byId = new HashMap<>();
+        for (Book b : bookDao.findByIds(ids)) {
+            byId.put(b.getId(), b);
+        }
+        List<Book> list = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Book b = byId.get(id);
+            if (b != null) {
+                list.add(b);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Loads the copies of all given books with one query and distributes them into
+     * {@link Book#getCopies()}, so a page costs two queries however many titles it shows.
+     */
+    private void attachCopies(List<Book> books) {
+        if (books.isEmpty()) {
+            return;
+        }
+        Map<Long, Book> byId = new HashMap<>();
+        for (Book b : books) {
+            b.setCopies(new ArrayList<>());
+            byId.put(b.getId(), b);
+        }
+        try {
+            for (BookCopy c : copyDao.findByBookIds(byId.keySet())) {
+                Book b = byId.get(c.getBook().getId());
+                if (b != null) {
+                    b.getCopies().add(c);
+                }
+            }
+        } catch (Exception ex) {
+            log.warn("Failed to load copies for books {}", byId.keySet(), ex);
+        }
+    }
 } 
\ No newline at end of file
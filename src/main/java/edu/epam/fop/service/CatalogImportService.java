@@ -0,0 +1,287 @@
+package edu.epam.fop.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import edu.epam.fop.dao.BookCopyDao;
+import edu.epam.fop.dao.BookDao;
+import edu.epam.fop.dao.JdbcTransactionManager;
+import edu.epam.fop.model.Book;
+import edu.epam.fop.model.BookCopy;
+import edu.epam.fop.model.Status;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Streams catalogue files into the database.
+ * <p>
+ * Each row describes one book and, optionally, the inventory numbers of its copies. Rows are parsed
+ * one at a time, validated, and written in chunks of {@code import.chunkSize} rows: one JDBC batch
+ * for the books and one for the copies, inside one transaction per chunk. If a chunk fails, it is
+ * replayed row by row so that only the offending rows are rejected.
+ * <p>
+ * CSV files need a header row with the columns {@code title}, {@code author}, {@code description}
+ * and {@code inventory_numbers} (numbers separated by {@code ;}); only title and author are
+ * required. JSON files hold an array of objects with the fields {@code title}, {@code author},
+ * {@code description} and {@code inventoryNumbers} (an array of strings).
+ */
+@Service
+public class CatalogImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogImportService.class);
+
+    private static final int MAX_DESCRIPTION_LENGTH = 1000;
+
+    private final BookDao bookDao;
+    private final BookCopyDao copyDao;
+    private final BookCopyService copyService;
+    private final CatalogSearchIndex searchIndex;
+    private final JdbcTransactionManager txManager;
+    private final int chunkSize;
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    @Autowired
+    public CatalogImportService(BookDao bookDao, BookCopyDao copyDao, BookCopyService copyService,
+                                CatalogSearchIndex searchIndex, JdbcTransactionManager txManager, @Value("${import.chunkSize:500}") int chunkSize) {
+        this.bookDao = bookDao;
+        this.copyDao = copyDao;
+        this.copyService = copyService;
+        this.searchIndex = searchIndex;
+        this.txManager = txManager;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    /**
+     * Imports a CSV catalogue. A malformed file stops the import at the broken record; rows read
+     * before it are still written.
+     */
+    public ImportReport importCsv(InputStream in) {
+        Import job = new Import();
+        CsvReader reader = new CsvReader(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+        try {
+            List<String> header = reader.next();
+            if (header == null) {
+                return job.finish();
+            }
+            Map<String, Integer> columns = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+            }
+            if (!columns.containsKey("title") || !columns.containsKey("author")) {
+                job.report.error(reader.getRecordLine(), "header must contain the columns title and author");
+                return job.finish();
+            }
+            List<String> fields;
+            while ((fields = reader.next()) != null) {
+                Row row = new Row(reader.getRecordLine());
+                row.title = column(fields, columns, "title");
+                row.author = column(fields, columns, "author");
+                row.description = column(fields, columns, "description");
+                String numbers = column(fields, columns, "inventory_numbers");
+                if (numbers != null && !numbers.isBlank()) {
+                    row.inventoryNumbers = new ArrayList<>();
+                    for (String number : numbers.split(";")) {
+                        row.inventoryNumbers.add(number.trim());
+                    }
+                }
+                job.accept(row);
+            }
+        } catch (IOException e) {
+            job.report.error(reader.getRecordLine(), "import aborted: " + e.getMessage());
+        }
+        return job.finish();
+    }
+
+    /**
+     * Imports a JSON catalogue. A malformed file stops the import at the syntax error; rows read
+     * before it are still written.
+     */
+    public ImportReport importJson(InputStream in) {
+        Import job = new Import();
+        try (JsonParser parser = jsonFactory.createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                job.report.error(parser.getTokenLocation().getLineNr(), "expected a JSON array of books");
+                return job.finish();
+            }
+            try {
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    Row row = new Row(parser.getTokenLocation().getLineNr());
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String field = parser.getCurrentName();
+                        JsonToken value = parser.nextToken();
+                        switch (field) {
+                            case "title": row.title = parser.getValueAsString(); break;
+                            case "author": row.author = parser.getValueAsString(); break;
+                            case "description": row.description = parser.getValueAsString(); break;
+                            case "inventoryNumbers":
+                                if (value == JsonToken.START_ARRAY) {
+                                    row.inventoryNumbers = new ArrayList<>();
+                                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                                        String number = parser.getValueAsString();
+                                        row.inventoryNumbers.add(number != null ? number.trim() : null);
+                                    }
+                                }
+                                break;
+                            default: parser.skipChildren();
+                        }
+                    }
+                    job.accept(row);
+                }
+            } catch (IOException e) {
+                job.report.error(parser.getCurrentLocation().getLineNr(), "import aborted: " + e.getMessage());
+            }
+        } catch (IOException e) {
+            job.report.error(1, "import aborted: " + e.getMessage());
+        }
+        return job.finish();
+    }
+
+    private static String column(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        return fields.get(index).trim();
+    }
+
+    /** A parsed input row. */
+    private static final class Row {
+        final long line;
+        String title;
+        String author;
+        String description;
+        List<String> inventoryNumbers = List.of();
+
+        Row(long line) {
+            this.line = line;
+        }
+    }
+
+    /** State of one import run: the pending chunk and the report being built. */
+    private final class Import {
+        final long start = System.currentTimeMillis();
+        final ImportReport report = new ImportReport();
+        final List<Row> chunk = new ArrayList<>();
+        // inventory numbers of the pending chunk; earlier chunks are already known to BookCopyService
+        final Set<String> chunkNumbers = new HashSet<>();
+
+        void accept(Row row) {
+            report.rowRead();
+            String error = validate(row);
+            if (error != null) {
+                report.error(row.line, error);
+                return;
+            }
+            chunk.add(row);
+            chunkNumbers.addAll(row.inventoryNumbers);
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        ImportReport finish() {
+            flush();
+            report.finish(System.currentTimeMillis() - start);
+            log.info("Catalogue import finished: {}", report);
+            return report;
+        }
+
+        private String validate(Row row) {
+            if (row.title == null || row.title.isBlank()) {
+                return "title is required";
+            }
+            if (row.author == null || row.author.isBlank()) {
+                return "author is required";
+            }
+            if (row.description != null && row.description.length() > MAX_DESCRIPTION_LENGTH) {
+                return "description is longer than " + MAX_DESCRIPTION_LENGTH + " characters";
+            }
+            // existsByInventoryNumber only rules out duplicates it knows of; a number another node
+            // added meanwhile passes here and is rejected by the unique index when the row is written
+            Set<String> own = new HashSet<>();
+            for (String number : row.inventoryNumbers) {
+                if (number == null || number.isBlank()) {
+                    return "inventory numbers must not be blank";
+                }
+                if (!own.add(number) || chunkNumbers.contains(number) || copyService.existsByInventoryNumber(number)) {
+                    return "inventory number " + number + " already exists";
+                }
+            }
+            return null;
+        }
+
+        private void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            try {
+                write(chunk);
+            } catch (Exception e) {
+                log.debug("Import chunk failed, retrying row by row", e);
+                for (Row row : chunk) {
+                    try {
+                        write(List.of(row));
+                    } catch (Exception rowError) {
+                        report.error(row.line, BookCopyService.isUniqueViolation(rowError)
+                                ? "inventory number already exists" : rootMessage(rowError));
+                    }
+                }
+            }
+            chunk.clear();
+            chunkNumbers.clear();
+        }
+
+        private void write(List<Row> rows) throws Exception {
+            List<Book> books = new ArrayList<>(rows.size());
+            for (Row row : rows) {
+                books.add(new Book(row.title.trim(), row.author.trim(), row.description));
+            }
+            List<BookCopy> copies = new ArrayList<>();
+            List<String> numbers = new ArrayList<>();
+            try {
+                txManager.begin();
+                bookDao.saveAll(books);
+                for (int i = 0; i < rows.size(); i++) {
+                    for (String number : rows.get(i).inventoryNumbers) {
+                        BookCopy copy = new BookCopy(number, Status.AVAILABLE);
+                        copy.setBook(books.get(i));
+                        copies.add(copy);
+                        numbers.add(copy.getInventoryNumber());
+                    }
+                }
+                copyDao.saveAll(copies);
+                txManager.commit();
+            } catch (Exception e) {
+                txManager.rollback();
+                throw e;
+            }
+            copyService.registerInventoryNumbers(numbers);
+            searchIndex.putAll(books);
+            report.imported(rows.size(), books.size(), copies.size());
+        }
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable cause = e;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+    }
+}
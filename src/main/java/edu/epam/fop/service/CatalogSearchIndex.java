@@ -0,0 +1,436 @@
+package edu.epam.fop.service;
+
+import edu.epam.fop.dao.BookDao;
+import edu.epam.fop.model.Book;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over book titles and authors.
+ * <p>
+ * Titles and authors are split into words, lower-cased and stripped of accents. Every word is
+ * indexed under its one- and two-letter prefixes and under each of its trigrams, so a query word
+ * of one or two letters matches words starting with it and a longer query word matches any word
+ * containing it. Candidates are found by intersecting posting sets, then checked against the
+ * stored words and ranked: an exact word counts more than a prefix, a prefix more than an infix,
+ * and title matches count twice as much as author matches.
+ * <p>
+ * The index is built from the database at startup, kept current by {@link BookService} and
+ * {@link CatalogImportService}, and rebuilt every {@code search.rebuildMillis} to pick up changes
+ * made elsewhere. Until the first build succeeds {@link #isReady()} is false and callers fall back
+ * to the database.
+ */
+@Component
+public class CatalogSearchIndex implements InitializingBean, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogSearchIndex.class);
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final int GRAM = 3;
+    private static final String PREFIX_MARK = "^";
+
+    private static final int EXACT = 3;
+    private static final int PREFIX = 2;
+    private static final int INFIX = 1;
+    private static final int TITLE_WEIGHT = 2;
+    private static final int AUTHOR_WEIGHT = 1;
+
+    private final BookDao bookDao;
+    private final long rebuildMillis;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private ScheduledExecutorService scheduler;
+
+    // guarded by lock
+    private Postings postings;
+    // changes made while a rebuild is reading the table, replayed onto the new postings; null value = removed
+    private Map<Long, Book> changedDuringRebuild;
+
+    @Autowired
+    public CatalogSearchIndex(BookDao bookDao, @Value("${search.rebuildMillis:300000}") long rebuildMillis) {
+        this.bookDao = bookDao;
+        this.rebuildMillis = rebuildMillis;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.warn("Could not build the catalogue search index, searches will query the database", e);
+        }
+        if (rebuildMillis > 0) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "search-index-rebuild");
+                t.setDaemon(true);
+                return t;
+            });
+            scheduler.scheduleWithFixedDelay(() -> {
+                try {
+                    rebuild();
+                } catch (Exception e) {
+                    log.warn("Catalogue search index rebuild failed, keeping the previous index", e);
+                }
+            }, rebuildMillis, rebuildMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    public boolean isReady() {
+        lock.readLock().lock();
+        try {
+            return postings != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return postings == null ? 0 : postings.docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reloads every book from the database and swaps the new postings in.
+     */
+    public void rebuild() throws SQLException {
+        lock.writeLock().lock();
+        try {
+            if (changedDuringRebuild != null) {
+                return; // another rebuild is running
+            }
+            changedDuringRebuild = new LinkedHashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Postings fresh = new Postings();
+        int count = 0;
+        try {
+            long start = System.nanoTime();
+            for (Book book : bookDao.findAll()) {
+                fresh.put(book);
+                count++;
+            }
+            lock.writeLock().lock();
+            try {
+                for (Map.Entry<Long, Book> change : changedDuringRebuild.entrySet()) {
+                    if (change.getValue() == null) {
+                        fresh.remove(change.getKey());
+                    } else {
+                        fresh.put(change.getValue());
+                    }
+                }
+                postings = fresh;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Catalogue search index built with {} books in {} ms", count,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } finally {
+            lock.writeLock().lock();
+            try {
+                changedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Adds or re-indexes a saved book.
+     */
+    public void put(Book book) {
+        if (book == null || book.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (postings != null) {
+                postings.put(book);
+            }
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.put(book.getId(), book);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void putAll(Collection<Book> books) {
+        books.forEach(this::put);
+    }
+
+    public void remove(Long bookId) {
+        lock.writeLock().lock();
+        try {
+            if (postings != null) {
+                postings.remove(bookId);
+            }
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.put(bookId, null);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the ids of the books whose title matches every word of {@code title} and whose author
+     * matches every word of {@code author}, best match first. A blank filter matches everything;
+     * at least one filter must be given.
+     * <p>
+     * Pages are keyed by the last id of the previous page: only hits ranked after that book are
+     * returned. If that book has since been removed or no longer matches, paging restarts at the top.
+     */
+    public List<Long> search(String title, String author, Long afterId, int limit) {
+        List<String> titleWords = tokenize(title);
+        List<String> authorWords = tokenize(author);
+        if ((titleWords.isEmpty() && authorWords.isEmpty()) || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            if (postings == null) {
+                throw new IllegalStateException("Catalogue search index is not built");
+            }
+            return postings.search(titleWords, authorWords, afterId, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        List<String> words = new ArrayList<>();
+        for (String word : NON_WORD.split(folded)) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    /** Keys a word is indexed under: its short prefixes and all its trigrams. */
+    private static Set<String> grams(String word) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 1; i < GRAM && i <= word.length(); i++) {
+            grams.add(PREFIX_MARK + word.substring(0, i));
+        }
+        for (int i = 0; i + GRAM <= word.length(); i++) {
+            grams.add(word.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    /** Keys whose postings must all contain a word matching {@code queryWord}. */
+    private static List<String> queryGrams(String queryWord) {
+        if (queryWord.length() < GRAM) {
+            return List.of(PREFIX_MARK + queryWord);
+        }
+        List<String> grams = new ArrayList<>();
+        for (int i = 0; i + GRAM <= queryWord.length(); i++) {
+            grams.add(queryWord.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private static final class Doc {
+        final Long id;
+        final List<String> titleWords;
+        final List<String> authorWords;
+        final String sortKey;
+
+        Doc(Book book) {
+            this.id = book.getId();
+            this.titleWords = tokenize(book.getTitle());
+            this.authorWords = tokenize(book.getAuthor());
+            this.sortKey = String.join(" ", titleWords);
+        }
+    }
+
+    private static final class Hit {
+        final Doc doc;
+        final int score;
+
+        Hit(Doc doc, int score) {
+            this.doc = doc;
+            this.score = score;
+        }
+    }
+
+    // best first: score, then title, then id
+    private static final Comparator<Hit> RANK = Comparator.<Hit>comparingInt(h -> -h.score)
+            .thenComparing(h -> h.doc.sortKey)
+            .thenComparing(h -> h.doc.id);
+
+    /** The index proper; not thread-safe, guarded by the enclosing lock. */
+    private static final class Postings {
+        final Map<Long, Doc> docs = new HashMap<>();
+        final Map<String, Set<Long>> titleGrams = new HashMap<>();
+        final Map<String, Set<Long>> authorGrams = new HashMap<>();
+
+        void put(Book book) {
+            remove(book.getId());
+            Doc doc = new Doc(book);
+            docs.put(doc.id, doc);
+            index(titleGrams, doc.titleWords, doc.id);
+            index(authorGrams, doc.authorWords, doc.id);
+        }
+
+        void remove(Long id) {
+            Doc doc = docs.remove(id);
+            if (doc != null) {
+                unindex(titleGrams, doc.titleWords, id);
+                unindex(authorGrams, doc.authorWords, id);
+            }
+        }
+
+        List<Long> search(List<String> titleQuery, List<String> authorQuery, Long afterId, int limit) {
+            Set<Long> candidates = candidates(titleGrams, titleQuery, null);
+            candidates = candidates(authorGrams, authorQuery, candidates);
+            if (candidates == null || candidates.isEmpty()) {
+                return List.of();
+            }
+            Hit after = afterId == null ? null : hit(docs.get(afterId), titleQuery, authorQuery);
+            // keep only the best limit hits after the cursor; the head of the queue is the worst of them
+            PriorityQueue<Hit> top = new PriorityQueue<>(Math.min(limit, candidates.size()) + 1, RANK.reversed());
+            for (Long id : candidates) {
+                Hit hit = hit(docs.get(id), titleQuery, authorQuery);
+                if (hit == null || (after != null && RANK.compare(hit, after) <= 0)) {
+                    continue;
+                }
+                top.add(hit);
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+            List<Hit> ranked = new ArrayList<>(top);
+            ranked.sort(RANK);
+            List<Long> ids = new ArrayList<>(ranked.size());
+            for (Hit hit : ranked) {
+                ids.add(hit.doc.id);
+            }
+            return ids;
+        }
+
+        // null if the book is unknown or does not match
+        private static Hit hit(Doc doc, List<String> titleQuery, List<String> authorQuery) {
+            if (doc == null) {
+                return null;
+            }
+            int titleScore = score(doc.titleWords, titleQuery);
+            int authorScore = titleScore < 0 ? -1 : score(doc.authorWords, authorQuery);
+            return authorScore < 0 ? null : new Hit(doc, titleScore * TITLE_WEIGHT + authorScore * AUTHOR_WEIGHT);
+        }
+
+        /**
+         * Narrows {@code current} (null = unrestricted) to the books whose posting sets contain every
+         * key of every query word, intersecting the smallest sets first.
+         */
+        private Set<Long> candidates(Map<String, Set<Long>> grams, List<String> query, Set<Long> current) {
+            if (query.isEmpty()) {
+                return current;
+            }
+            List<Set<Long>> sets = new ArrayList<>();
+            for (String word : query) {
+                for (String gram : queryGrams(word)) {
+                    Set<Long> ids = grams.get(gram);
+                    if (ids == null) {
+                        return Collections.emptySet();
+                    }
+                    sets.add(ids);
+                }
+            }
+            if (current != null) {
+                sets.add(current);
+            }
+            sets.sort(Comparator.comparingInt(Set::size));
+            Set<Long> result = new HashSet<>(sets.get(0));
+            for (int i = 1; i < sets.size() && !result.isEmpty(); i++) {
+                result.retainAll(sets.get(i));
+            }
+            return result;
+        }
+
+        /** Sum of the best match of each query word, or -1 if some word matches nothing. */
+        private static int score(List<String> words, List<String> query) {
+            int total = 0;
+            for (String q : query) {
+                int best = 0;
+                for (String w : words) {
+                    if (w.equals(q)) {
+                        best = EXACT;
+                        break;
+                    } else if (w.startsWith(q)) {
+                        best = Math.max(best, PREFIX);
+                    } else if (q.length() >= GRAM && w.contains(q)) {
+                        best = Math.max(best, INFIX);
+                    }
+                }
+                if (best == 0) {
+                    return -1;
+                }
+                total += best;
+            }
+            return total;
+        }
+
+        private static void index(Map<String, Set<Long>> grams, List<String> words, Long id) {
+            for (String word : words) {
+                for (String gram : grams(word)) {
+                    grams.computeIfAbsent(gram, k -> new HashSet<>()).add(id);
+                }
+            }
+        }
+
+        private static void unindex(Map<String, Set<Long>> grams, List<String> words, Long id) {
+            for (String word : words) {
+                for (String gram : grams(word)) {
+                    Set<Long> ids = grams.get(gram);
+                    if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                        grams.remove(gram);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package edu.epam.fop.service;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated list and the token for the page after it.
+ */
+public class CursorPage<T> {
+
+    /** Largest page a client may ask for; the query fetches one row more. */
+    public static final int MAX_SIZE = 100;
+
+    private final List<T> items;
+    private final String nextCursor;
+
+    public CursorPage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * The page size to use for a requested {@code size}: {@code defaultSize} if it is not positive,
+     * otherwise at most {@link #MAX_SIZE}.
+     */
+    public static int pageSize(int size, int defaultSize) {
+        return size < 1 ? defaultSize : Math.min(size, MAX_SIZE);
+    }
+
+    /**
+     * Builds a page from a query that asked for {@code size + 1} rows: the extra row only tells
+     * whether another page exists, and the cursor points at the last row that is kept.
+     */
+    static <T> CursorPage<T> of(List<T> rows, int size, Function<T, PageCursor> cursorOf) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, size);
+        return new CursorPage<>(items, cursorOf.apply(items.get(size - 1)).encode());
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    /** Token for the next page, or {@code null} on the last page. */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return nextCursor != null;
+    }
+}
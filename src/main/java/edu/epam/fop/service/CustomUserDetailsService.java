@@ -4,23 +4,35 @@ import edu.epam.fop.dao.UserDao;
 import edu.epam.fop.dao.RoleDao;
 import edu.epam.fop.security.CustomUserDetails;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+/**
+ * Loads principals for Spring Security. Also implements {@link UserDetailsPasswordService}, so the
+ * authentication provider stores a fresh hash whenever the password encoder reports that a stored
+ * hash was made with a lower BCrypt cost than the configured one.
+ */
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserDao userDao;
     private final RoleDao roleDao;
+    private final UserDetailsCache cache;
 
-    public CustomUserDetailsService(UserDao userDao, RoleDao roleDao) {
+    public CustomUserDetailsService(UserDao userDao, RoleDao roleDao, UserDetailsCache cache) {
         this.userDao = userDao;
         this.roleDao = roleDao;
+        this.cache = cache;
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        CustomUserDetails cached = cache.get(username);
+        if (cached != null) {
+            return cached;
+        }
         try {
             var user = userDao.findByUsername(username);
             if (user == null) {
@@ -28,10 +40,22 @@ public class CustomUserDetailsService implements UserDetailsService {
             }
             // Load roles
             user.getRoles().addAll(roleDao.findByUserId(user.getId()));
-            return new CustomUserDetails(user);
+            CustomUserDetails details = new CustomUserDetails(user);
+            cache.put(details);
+            return details;
         } catch(Exception e){
             if(e instanceof UsernameNotFoundException) throw (UsernameNotFoundException)e;
             throw new UsernameNotFoundException("User lookup failed", e);
         }
     }
+
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        CustomUserDetails details = (CustomUserDetails) user;
+        try {
+            userDao.updatePassword(details.getId(), newPassword);
+        } catch(Exception e){ throw new RuntimeException(e);}
+        cache.invalidate(details.getUsername());
+        return details.withPassword(newPassword);
+    }
 } 
\ No newline at end of file
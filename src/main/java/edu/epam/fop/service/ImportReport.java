@@ -0,0 +1,82 @@
+package edu.epam.fop.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a catalogue import: counters, throughput and the rows that were rejected.
+ */
+public class ImportReport {
+
+    // keep the report small however broken the file is
+    static final int MAX_REPORTED_ERRORS = 500;
+
+    private long rowsRead;
+    private long rowsImported;
+    private long booksImported;
+    private long copiesImported;
+    private long errorCount;
+    private long elapsedMillis;
+    private final List<String> errors = new ArrayList<>();
+
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    public long getRowsImported() {
+        return rowsImported;
+    }
+
+    public long getBooksImported() {
+        return booksImported;
+    }
+
+    public long getCopiesImported() {
+        return copiesImported;
+    }
+
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public double getRowsPerSecond() {
+        return elapsedMillis == 0 ? rowsRead : rowsRead * 1000.0 / elapsedMillis;
+    }
+
+    /** The first {@value #MAX_REPORTED_ERRORS} errors, each prefixed with its line or record number. */
+    public List<String> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    void rowRead() {
+        rowsRead++;
+    }
+
+    void imported(long rows, long books, long copies) {
+        rowsImported += rows;
+        booksImported += books;
+        copiesImported += copies;
+    }
+
+    void error(long line, String message) {
+        errorCount++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add("line " + line + ": " + message);
+        }
+    }
+
+    void finish(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("rows=%d, imported=%d, books=%d, copies=%d, errors=%d, elapsed=%dms, rate=%.0f rows/s",
+                rowsRead, rowsImported, booksImported, copiesImported, errorCount, elapsedMillis, getRowsPerSecond());
+    }
+}
@@ -1,5 +1,7 @@
 package edu.epam.fop.service;
 
+import edu.epam.fop.annotation.ReadReplica;
+import edu.epam.fop.annotation.ReadYourWrites;
 import edu.epam.fop.model.*;
 import edu.epam.fop.dao.BookCopyDao;
 import edu.epam.fop.dao.BookDao;
@@ -9,7 +11,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public class OrderService {
@@ -17,41 +24,54 @@ public class OrderService {
     private final OrderDao orderDao;
     private final BookCopyDao copyDao;
     private final BookDao bookDao;
+    private final JdbcTransactionManager txManager;
+    private final ReportService reportService;
 
     @Autowired
-    public OrderService(OrderDao orderDao, BookCopyDao copyDao, BookDao bookDao) {
+    public OrderService(OrderDao orderDao, BookCopyDao copyDao, BookDao bookDao, JdbcTransactionManager txManager,
+                        ReportService reportService) {
         this.orderDao = orderDao;
         this.copyDao = copyDao;
         this.bookDao = bookDao;
+        this.txManager = txManager;
+        this.reportService = reportService;
     }
 
     /**
-     * Creates a new {@link Order} for the given user and copy.
-     * Reserves the copy and persists order inside a manual JDBC transaction.
+     * Creates a new PENDING {@link Order} for the given user on any available copy of the book.
+     * The copy is claimed with a single conditional update, so concurrent requests can never
+     * reserve the same copy; the claim and the order are written in one JDBC transaction.
+     * @return the new order, or {@code null} if the book has no available copy
      */
-    public Order createOrder(User user, BookCopy copy, LendingType type) {
-        copy.setStatus(Status.RESERVED);
+    @ReadYourWrites
+    public Order createOrder(User user, Long bookId, LendingType type) {
         try {
-            JdbcTransactionManager.begin();
-            copyDao.update(copy);
+            txManager.begin();
+            BookCopy copy = copyDao.reserveAvailable(bookId);
+            if (copy == null) {
+                txManager.rollback();
+                return null;
+            }
             Order order = new Order(user, copy, OrderStatus.PENDING);
             order.setLendingType(type);
             orderDao.save(order);
-            JdbcTransactionManager.commit();
+            txManager.commit();
+            reportService.onOrderCreated(copy.getBook() != null ? copy.getBook().getId() : null);
             return order;
         } catch(Exception e){
-            JdbcTransactionManager.rollback();
+            txManager.rollback();
             throw new RuntimeException(e);
         }
     }
 
     /**
-     * Lists orders belonging to the specified user.
+     * Lists orders belonging to the specified user, newest first.
      */
+    @ReadReplica
     public List<Order> findByUser(User user) {
         try {
-            List<Order> list = orderDao.findAll().stream().filter(o->o.getUser()!=null && o.getUser().getId().equals(user.getId())).toList();
-            list.forEach(this::enrich);
+            List<Order> list = orderDao.findByUser(user.getId());
+            enrichAll(list);
             return list;
         } catch(Exception e){ throw new RuntimeException(e);}
     }
@@ -62,28 +82,51 @@ public class OrderService {
     public List<Order> findByStatus(OrderStatus status) {
         try {
             List<Order> list = orderDao.findByStatus(status);
-            list.forEach(this::enrich);
+            enrichAll(list);
             return list;
         } catch(Exception e){ throw new RuntimeException(e);}
     }
 
-    public List<Order> findByStatusPaged(OrderStatus status,int page,int size){
+    /**
+     * Returns a page of orders with the given status, oldest first, continuing after {@code cursor}
+     * ({@code null} = first page).
+     */
+    public CursorPage<Order> findByStatusPage(OrderStatus status, String cursor, int size){
         try {
-            List<Order> list = orderDao.findByStatusPaged(status,page*size,size);
-            list.forEach(this::enrich);
-            return list;
+            PageCursor after = PageCursor.decode(cursor);
+            List<Order> rows = orderDao.findByStatusAfter(status,
+                    after != null ? after.getCreatedAt() : null, after != null ? after.getId() : null, size + 1);
+            CursorPage<Order> page = CursorPage.of(rows, size, o -> PageCursor.after(o.getCreatedAt(), o.getId()));
+            enrichAll(page.getItems());
+            return page;
         } catch(Exception e){ throw new RuntimeException(e);}
     }
 
-    public List<Order> findByUserPaged(User user,int page,int size){
+    /**
+     * Returns a page of readers with pending or issued orders, in user id order, continuing after
+     * {@code cursor} ({@code null} = first page). The whole page is loaded with one query.
+     */
+    public CursorPage<ReaderActivity> findActiveReaders(String cursor, int size) {
         try {
-            List<Order> list = orderDao.findAll().stream()
-                    .filter(o->o.getUser()!=null && o.getUser().getId().equals(user.getId()))
-                    .skip(page*size)
-                    .limit(size)
-                    .toList();
-            list.forEach(this::enrich);
-            return list;
+            PageCursor after = PageCursor.decode(cursor);
+            List<ReaderActivity> rows = orderDao.findActiveReaders(after != null ? after.getId() : null, size + 1);
+            return CursorPage.of(rows, size, r -> PageCursor.afterId(r.getUserId()));
+        } catch(Exception e){ throw new RuntimeException(e);}
+    }
+
+    /**
+     * Returns a page of the user's orders, newest first, continuing after {@code cursor}
+     * ({@code null} = most recent order).
+     */
+    @ReadReplica
+    public CursorPage<Order> findByUserPage(User user, String cursor, int size) {
+        try {
+            PageCursor after = PageCursor.decode(cursor);
+            List<Order> rows = orderDao.findByUserBefore(user.getId(),
+                    after != null ? after.getCreatedAt() : null, after != null ? after.getId() : null, size + 1);
+            CursorPage<Order> page = CursorPage.of(rows, size, o -> PageCursor.after(o.getCreatedAt(), o.getId()));
+            enrichAll(page.getItems());
+            return page;
         }catch(Exception e){ throw new RuntimeException(e);}
     }
 
@@ -92,19 +135,23 @@ public class OrderService {
      */
     public void issueOrder(Long orderId) {
         try {
-            JdbcTransactionManager.begin();
+            txManager.begin();
             Order order = orderDao.findById(orderId);
             enrich(order);
             if (order!=null){
+                OrderStatus previous = order.getStatus();
                 BookCopy copy = order.getCopy();
                 copy.setStatus(Status.ISSUED);
                 order.setStatus(OrderStatus.ISSUED);
                 copyDao.update(copy);
                 orderDao.update(order);
-                JdbcTransactionManager.commit();
+                txManager.commit();
+                reportService.onStatusChanged(previous, order.getStatus());
+            } else {
+                txManager.rollback();
             }
         } catch(Exception e){
-            JdbcTransactionManager.rollback();
+            txManager.rollback();
             throw new RuntimeException(e);
         }
     }
@@ -114,29 +161,34 @@ public class OrderService {
      */
     public void returnOrder(Long orderId) {
         try {
-            JdbcTransactionManager.begin();
+            txManager.begin();
             Order order = orderDao.findById(orderId);
             enrich(order);
             if (order!=null){
+                OrderStatus previous = order.getStatus();
                 BookCopy copy = order.getCopy();
                 copy.setStatus(Status.AVAILABLE);
                 order.setStatus(OrderStatus.RETURNED);
                 copyDao.update(copy);
                 orderDao.update(order);
-                JdbcTransactionManager.commit();
+                txManager.commit();
+                reportService.onStatusChanged(previous, order.getStatus());
+            } else {
+                txManager.rollback();
             }
         } catch(Exception e){
-            JdbcTransactionManager.rollback();
+            txManager.rollback();
             throw new RuntimeException(e);
         }
     }
 
     public void issueOrderDetailed(Long orderId, LocalDate dueDate, LendingType type) {
         try {
-            JdbcTransactionManager.begin();
+            txManager.begin();
             Order order = orderDao.findById(orderId);
             enrich(order);
             if (order!=null){
+                OrderStatus previous = order.getStatus();
                 BookCopy copy = order.getCopy();
                 copy.setStatus(Status.ISSUED);
                 order.setStatus(OrderStatus.ISSUED);
@@ -144,75 +196,101 @@ public class OrderService {
                 order.setLendingType(type);
                 copyDao.update(copy);
                 orderDao.update(order);
-                JdbcTransactionManager.commit();
+                txManager.commit();
+                reportService.onStatusChanged(previous, order.getStatus());
+            } else {
+                txManager.rollback();
             }
         } catch(Exception e){
-            JdbcTransactionManager.rollback();
+            txManager.rollback();
             throw new RuntimeException(e);
         }
     }
 
+    @ReadYourWrites
     public void cancelOrder(Long orderId, User user) {
         try {
-            JdbcTransactionManager.begin();
+            txManager.begin();
             Order order = orderDao.findById(orderId);
             enrich(order);
             if (order!=null && order.getStatus()==OrderStatus.PENDING && order.getUser()!=null && order.getUser().getId().equals(user.getId())){
+                OrderStatus previous = order.getStatus();
                 order.setStatus(OrderStatus.CANCELLED);
                 BookCopy copy = order.getCopy();
                 copy.setStatus(Status.AVAILABLE);
                 copyDao.update(copy);
                 orderDao.update(order);
-                JdbcTransactionManager.commit();
+                txManager.commit();
+                reportService.onStatusChanged(previous, order.getStatus());
+            } else {
+                txManager.rollback();
             }
         } catch(Exception e){
-            JdbcTransactionManager.rollback();
+            txManager.rollback();
             throw new RuntimeException(e);
         }
     }
 
     private void enrich(Order o) {
-        if (o == null) {
-            return;
+        if (o != null) {
+            enrichAll(Collections.singletonList(o));
         }
+    }
+
+    /**
+     * Replaces the lightweight copies of the given orders with fully loaded copies and books.
+     * Resolves the whole list with one copy query and one book query; books that cannot be
+     * found are replaced with an "N/A" stub so templates never see a null.
+     */
+    private void enrichAll(List<Order> orders) {
         try {
-            if (o.getCopy() == null) {
+            Set<Long> copyIds = new HashSet<>();
+            for (Order o : orders) {
+                if (o.getCopy() != null) {
+                    copyIds.add(o.getCopy().getId());
+                }
+            }
+            if (copyIds.isEmpty()) {
                 return;
             }
 
             // Load full BookCopy information from DB (including stub book id)
-            BookCopy fullCopy = copyDao.findById(o.getCopy().getId());
-            if (fullCopy == null) {
-                return;
+            Map<Long, BookCopy> copies = new HashMap<>();
+            Set<Long> bookIds = new HashSet<>();
+            for (BookCopy c : copyDao.findByIds(copyIds)) {
+                copies.put(c.getId(), c);
+                if (c.getBook() != null) {
+                    bookIds.add(c.getBook().getId());
+                }
             }
 
-            // Always attempt to load full Book details if we know the book id
-            Long bookId = null;
-            if (fullCopy.getBook() != null) {
-                bookId = fullCopy.getBook().getId();
+            Map<Long, Book> books = new HashMap<>();
+            for (Book b : bookDao.findByIds(bookIds)) {
+                books.put(b.getId(), b);
             }
 
-            if (bookId != null) {
-                var book = bookDao.findById(bookId);
-                if (book != null) {
-                    fullCopy.setBook(book);
-                } else {
+            for (Order o : orders) {
+                if (o.getCopy() == null) {
+                    continue;
+                }
+                BookCopy fullCopy = copies.get(o.getCopy().getId());
+                if (fullCopy == null) {
+                    continue;
+                }
+                Long bookId = fullCopy.getBook() != null ? fullCopy.getBook().getId() : null;
+                Book book = bookId != null ? books.get(bookId) : null;
+                if (book == null) {
                     // Ensure non-null reference to avoid template errors
-                    edu.epam.fop.model.Book stub = new edu.epam.fop.model.Book();
-                    stub.setId(bookId);
-                    stub.setTitle("N/A");
-                    fullCopy.setBook(stub);
+                    book = new Book();
+                    book.setId(bookId);
+                    book.setTitle("N/A");
                 }
-            } else {
-                // bookId unknown – still attach stub book to avoid nulls in template
-                edu.epam.fop.model.Book stub = new edu.epam.fop.model.Book();
-                stub.setTitle("N/A");
-                fullCopy.setBook(stub);
+                // copies are shared between orders of the same copy, which is fine for read-only views
+                fullCopy.setBook(book);
+                // replace the lightweight copy in the order with the fully enriched one
+                o.setCopy(fullCopy);
             }
-
-            // replace the lightweight copy in the order with the fully enriched one
-            o.setCopy(fullCopy);
         } catch (Exception ignored) {
         }
     }
-} 
\ No newline at end of file
+}
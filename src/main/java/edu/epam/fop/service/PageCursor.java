@@ -0,0 +1,65 @@
+package edu.epam.fop.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Position of the last row of a keyset page: an id, optionally preceded by a creation time for
+ * lists ordered by {@code (createdAt, id)}.
+ * <p>
+ * Controllers pass it around as an opaque URL-safe token, so the ordering columns can change
+ * without breaking links. A token that cannot be decoded is treated as "start from the beginning".
+ */
+public final class PageCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime createdAt;
+    private final Long id;
+
+    private PageCursor(LocalDateTime createdAt, Long id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    public static PageCursor afterId(Long id) {
+        return new PageCursor(null, id);
+    }
+
+    public static PageCursor after(LocalDateTime createdAt, Long id) {
+        return new PageCursor(createdAt, id);
+    }
+
+    /**
+     * Parses a token produced by {@link #encode()}; returns {@code null} for a missing or invalid one.
+     */
+    public static PageCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int sep = raw.indexOf(SEPARATOR);
+            if (sep < 0) {
+                return afterId(Long.valueOf(raw));
+            }
+            return after(LocalDateTime.parse(raw.substring(0, sep)), Long.valueOf(raw.substring(sep + 1)));
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    public String encode() {
+        String raw = createdAt == null ? String.valueOf(id) : createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
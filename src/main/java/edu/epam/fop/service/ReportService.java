@@ -1,40 +1,138 @@
 package edu.epam.fop.service;
 
+import edu.epam.fop.annotation.ReadReplica;
+import edu.epam.fop.model.BookRequestCount;
 import edu.epam.fop.model.OrderStatus;
 import edu.epam.fop.dao.OrderDao;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Admin statistics served from an in-memory rollup.
+ * <p>
+ * The rollup is seeded with two aggregate queries and then kept current by {@link OrderService},
+ * which reports every order it creates and every status transition it commits. It is reloaded
+ * from the database after {@code report.rollupRefreshMillis} so that changes made by other
+ * application nodes, or directly in the database, are picked up as well. Reloads read from a
+ * replica when one is configured, with both queries in one read-only transaction; a call served
+ * from the rollup never borrows a connection.
+ */
 @Service
+@ReadReplica
+@Transactional(readOnly = true)
 public class ReportService {
 
+    private static final Comparator<BookRequestCount> MOST_REQUESTED =
+            Comparator.comparingLong(BookRequestCount::getRequests).reversed()
+                    .thenComparing(BookRequestCount::getBookId);
+
     private final OrderDao orderDao;
+    private final long refreshMillis;
+    private volatile Rollup rollup;
 
     @Autowired
-    public ReportService(OrderDao orderDao) {
+    public ReportService(OrderDao orderDao, @Value("${report.rollupRefreshMillis:300000}") long refreshMillis) {
         this.orderDao = orderDao;
+        this.refreshMillis = refreshMillis;
     }
 
     public long totalIssued(){
-        try {
-            return orderDao.findByStatus(OrderStatus.ISSUED).size();
-        }catch(Exception e){ throw new RuntimeException(e);}
-    }
-
-    public List<Object[]> mostRequested(){
-        try {
-            var all = orderDao.findAll();
-            java.util.Map<Long, Long> map = new java.util.HashMap<>();
-            all.forEach(o->{ if(o.getCopy()!=null && o.getCopy().getBook()!=null){
-                Long bid = o.getCopy().getBook().getId();
-                map.put(bid, map.getOrDefault(bid,0L)+1);
-            }});
-            java.util.List<Object[]> list = new java.util.ArrayList<>();
-            map.forEach((k,v)-> list.add(new Object[]{k,v}));
-            list.sort((a,b)-> Long.compare((Long)b[1], (Long)a[1]));
-            return list;
-        }catch(Exception e){ throw new RuntimeException(e);}
-    }
-} 
\ No newline at end of file
+        return current().issued.get();
+    }
+
+    public List<BookRequestCount> mostRequested(){
+        return current().top();
+    }
+
+    /**
+     * Counts a newly created order for the given book.
+     */
+    void onOrderCreated(Long bookId) {
+        Rollup r = rollup;
+        if (r != null && bookId != null && !r.increment(bookId)) {
+            // a book the rollup has no title for yet; reload on the next read
+            rollup = null;
+        }
+    }
+
+    /**
+     * Tracks a committed status transition of an order.
+     */
+    void onStatusChanged(OrderStatus from, OrderStatus to) {
+        Rollup r = rollup;
+        if (r == null || from == to) {
+            return;
+        }
+        if (to == OrderStatus.ISSUED) {
+            r.issued.incrementAndGet();
+        } else if (from == OrderStatus.ISSUED) {
+            r.issued.decrementAndGet();
+        }
+    }
+
+    private Rollup current() {
+        Rollup r = rollup;
+        if (r == null || System.currentTimeMillis() - r.loadedAt > refreshMillis) {
+            try {
+                r = new Rollup(orderDao.countByStatus(OrderStatus.ISSUED), orderDao.countRequestsByBook());
+            } catch(Exception e){ throw new RuntimeException(e);}
+            rollup = r;
+        }
+        return r;
+    }
+
+    private static final class Rollup {
+        final long loadedAt = System.currentTimeMillis();
+        final AtomicLong issued;
+        final Map<Long, BookRequestCount> requests = new ConcurrentHashMap<>();
+        // bumped on every change so a list sorted from older counts is never cached
+        final AtomicLong version = new AtomicLong();
+        volatile Sorted sorted;
+
+        Rollup(long issued, List<BookRequestCount> rows) {
+            this.issued = new AtomicLong(issued);
+            for (BookRequestCount row : rows) {
+                requests.put(row.getBookId(), row);
+            }
+            this.sorted = new Sorted(0, List.copyOf(rows));
+        }
+
+        boolean increment(Long bookId) {
+            BookRequestCount updated = requests.computeIfPresent(bookId,
+                    (id, c) -> new BookRequestCount(id, c.getTitle(), c.getRequests() + 1));
+            version.incrementAndGet();
+            return updated != null;
+        }
+
+        List<BookRequestCount> top() {
+            Sorted s = sorted;
+            long v = version.get();
+            if (s.version != v) {
+                List<BookRequestCount> list = new ArrayList<>(requests.values());
+                list.sort(MOST_REQUESTED);
+                s = new Sorted(v, List.copyOf(list));
+                sorted = s;
+            }
+            return s.rows;
+        }
+    }
+
+    private static final class Sorted {
+        final long version;
+        final List<BookRequestCount> rows;
+
+        Sorted(long version, List<BookRequestCount> rows) {
+            this.version = version;
+            this.rows = rows;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package edu.epam.fop.service;
+
+import edu.epam.fop.security.CustomUserDetails;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Short-lived cache of resolved principals (user row plus roles) keyed by username.
+ * {@link UserService} invalidates entries whenever it changes a user; the TTL bounds staleness
+ * for changes made elsewhere, e.g. by another application node.
+ * <p>
+ * An invalidation inside a transaction is repeated after the commit: until then a login still
+ * reads the committed row and would otherwise cache it again, so a user who was just blocked
+ * could keep logging in for the whole TTL.
+ */
+@Component
+public class UserDetailsCache {
+
+    private static final class Entry {
+        final CustomUserDetails details;
+        final long expiresAt;
+
+        Entry(CustomUserDetails details, long expiresAt) {
+            this.details = details;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final int maxSize;
+
+    @Autowired
+    public UserDetailsCache(@Value("${security.userCache.ttlSeconds:60}") long ttlSeconds,
+                            @Value("${security.userCache.maxSize:10000}") int maxSize) {
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.maxSize = maxSize;
+    }
+
+    CustomUserDetails get(String username) {
+        Entry e = entries.get(username);
+        if (e == null) {
+            return null;
+        }
+        if (System.nanoTime() - e.expiresAt > 0) {
+            entries.remove(username, e);
+            return null;
+        }
+        return e.details;
+    }
+
+    void put(CustomUserDetails details) {
+        if (ttlNanos <= 0) {
+            return;
+        }
+        if (entries.size() >= maxSize) {
+            // entries are cheap to reload; drop expired ones and, if still full, everything
+            long now = System.nanoTime();
+            entries.values().removeIf(e -> now - e.expiresAt > 0);
+            if (entries.size() >= maxSize) {
+                entries.clear();
+            }
+        }
+        entries.put(details.getUsername(), new Entry(details, System.nanoTime() + ttlNanos));
+    }
+
+    void invalidate(String username) {
+        entries.remove(username);
+        afterCommit(() -> entries.remove(username));
+    }
+
+    void invalidate(Long userId) {
+        Runnable evict = () -> entries.values().removeIf(e -> userId.equals(e.details.getId()));
+        evict.run();
+        afterCommit(evict);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        }
+    }
+}
@@ -9,6 +9,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.sql.DataSource;
 import java.util.List;
 
 @Service
@@ -17,12 +18,17 @@ public class UserService {
     private final UserDao userDao;
     private final RoleDao roleDao;
     private final PasswordEncoder passwordEncoder;
+    private final DataSource dataSource;
+    private final UserDetailsCache userDetailsCache;
 
     @Autowired
-    public UserService(UserDao userDao, RoleDao roleDao, PasswordEncoder passwordEncoder) {
+    public UserService(UserDao userDao, RoleDao roleDao, PasswordEncoder passwordEncoder, DataSource dataSource,
+                       UserDetailsCache userDetailsCache) {
         this.userDao = userDao;
         this.roleDao = roleDao;
         this.passwordEncoder = passwordEncoder;
+        this.dataSource = dataSource;
+        this.userDetailsCache = userDetailsCache;
     }
 
     @Transactional
@@ -55,6 +61,7 @@ public class UserService {
             }
             linkRole(userId, role.getId());
             user.getRoles().add(role);
+            userDetailsCache.invalidate(username);
             return user;
         } catch(Exception e){ throw new RuntimeException(e);}
     }
@@ -92,6 +99,7 @@ public class UserService {
                     u.getRoles().add(role);
                 }
             }
+            userDetailsCache.invalidate(username);
             return u;
         }catch(Exception e){ throw new RuntimeException(e);}
     }
@@ -107,6 +115,7 @@ public class UserService {
             if(u!=null){
                 u.setBlocked(!u.isBlocked());
                 userDao.update(u);
+                userDetailsCache.invalidate(u.getUsername());
             }
         }catch(Exception e){ throw new RuntimeException(e);}
     }
@@ -118,13 +127,14 @@ public class UserService {
     public void delete(Long id){
         try {
             userDao.deleteById(id);
+            userDetailsCache.invalidate(id);
         }catch(Exception e){ throw new RuntimeException(e);}
     }
 
     // helper to insert into user_roles
     private void linkRole(Long userId, Long roleId) throws Exception {
         String sql = "INSERT INTO user_roles(user_id, role_id) VALUES (?,?) ON CONFLICT DO NOTHING";
-        try (var conn = edu.epam.fop.dao.ConnectionPool.getConnection();
+        try (var conn = dataSource.getConnection();
              var ps = conn.prepareStatement(sql)){
             ps.setLong(1, userId);
             ps.setLong(2, roleId);
@@ -133,13 +143,15 @@ public class UserService {
     }
 
     /**
-     * Returns a page of users.
-     * @param page zero-based page index
+     * Returns a page of users in id order.
+     * @param cursor token of the previous page's {@link CursorPage#getNextCursor()}, or {@code null}
      * @param size page size
      */
-    public List<User> findPaged(int page,int size){
+    public CursorPage<User> findPage(String cursor,int size){
         try {
-            return userDao.findPaged(page*size,size);
+            PageCursor after = PageCursor.decode(cursor);
+            List<User> rows = userDao.findAfter(after != null ? after.getId() : null, size + 1);
+            return CursorPage.of(rows, size, u -> PageCursor.afterId(u.getId()));
         }catch(Exception e){ throw new RuntimeException(e);}
     }
 } 
\ No newline at end of file
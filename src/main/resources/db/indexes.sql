@@ -0,0 +1,32 @@
+-- Secondary indexes the DAOs rely on. Run it as a deployment step, e.g.
+--   psql -d library-managment -f src/main/resources/db/indexes.sql
+-- or let PersistenceConfig apply it at startup with db.applyIndexes=true. Every statement must be
+-- idempotent so the script can run against an existing database, and every index is built
+-- CONCURRENTLY so writes to the table continue meanwhile. CONCURRENTLY cannot run inside a
+-- transaction block, so do not wrap the script in one (no psql --single-transaction). A
+-- concurrent build that fails leaves an INVALID index that IF NOT EXISTS then skips: drop it
+-- and run the script again.
+
+-- Per-user order history, newest first (OrderDao.findByUserBefore)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_orders_user_created ON orders (user_id, createdAt DESC, id DESC);
+
+-- Available-copy lookup for reservations (BookCopyDao.reserveAvailable)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_book_copies_book_status ON book_copies (book_id, status);
+
+-- Inventory numbers identify a physical copy (BookCopyDao.existsByInventoryNumber)
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS ux_book_copies_inventory_number ON book_copies (inventory_number);
+
+-- Trigram indexes for the LIKE '%x%' catalogue search (BookDaoImpl.findAfter, search.backend=database).
+-- CREATE EXTENSION needs a privileged role; without pg_trgm these statements fail and are skipped.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_books_title_trgm ON books USING gin (LOWER(title) gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_books_author_trgm ON books USING gin (LOWER(author) gin_trgm_ops);
+
+-- Librarian queues in request order (OrderDao.findByStatusAfter)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_orders_status_created ON orders (status, createdAt, id);
+
+-- Readers with open orders (OrderDao.findActiveReaders); partial, so it only holds active orders
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_orders_active_user ON orders (user_id, createdAt, id) WHERE status IN ('PENDING', 'ISSUED');
+
+-- Current borrower of each copy in the streamed copy list (BookCopyDao.streamAll)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_orders_issued_copy ON orders (copy_id) WHERE status = 'ISSUED';
@@ -0,0 +1,119 @@
+package edu.epam.fop.config;
+
+import edu.epam.fop.dao.ConnectionPool;
+import edu.epam.fop.dao.PoolConfig;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * 10,000 concurrent handler-like tasks on the application executor, once with the platform pool and
+ * once with virtual threads, each borrowing a connection and waiting briefly as if on network I/O.
+ * Both modes must serve every task without exceeding the pool; the timings are logged for comparison.
+ * The virtual-thread run is skipped on runtimes older than Java 21.
+ */
+class AsyncConfigBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncConfigBenchmarkTest.class);
+
+    private static final int TASKS = 10_000;
+    private static final int POOL_SIZE = 20;
+
+    private static ConnectionPool pool;
+
+    @BeforeAll
+    static void startPool() {
+        PoolConfig config = new PoolConfig();
+        config.setPoolName("benchmark");
+        config.setUrl("jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1");
+        config.setUsername("sa");
+        config.setPassword("");
+        config.setInitialSize(POOL_SIZE);
+        config.setMinIdle(POOL_SIZE);
+        config.setMaxSize(POOL_SIZE);
+        config.setBorrowTimeoutMillis(60000);
+        pool = new ConnectionPool(config);
+    }
+
+    @AfterAll
+    static void stopPool() {
+        pool.close();
+    }
+
+    @Test
+    void platformThreads() throws Exception {
+        run("platform", executor(false));
+    }
+
+    @Test
+    void virtualThreads() throws Exception {
+        assumeTrue(AsyncConfig.virtualThreadFactory("probe-") != null, "runtime has no virtual threads");
+        run("virtual", executor(true));
+    }
+
+    private static AsyncTaskExecutor executor(boolean virtual) throws Exception {
+        AsyncConfig config = new AsyncConfig();
+        ReflectionTestUtils.setField(config, "virtualThreads", virtual);
+        ReflectionTestUtils.setField(config, "platformThreads", POOL_SIZE);
+        ReflectionTestUtils.setField(config, "queueCapacity", TASKS);
+        AsyncTaskExecutor executor = config.applicationTaskExecutor();
+        if (executor instanceof InitializingBean) {
+            ((InitializingBean) executor).afterPropertiesSet();
+        }
+        return executor;
+    }
+
+    private static void run(String mode, AsyncTaskExecutor executor) throws Exception {
+        AtomicInteger served = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicInteger inUse = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(TASKS);
+
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < TASKS; i++) {
+                executor.execute(() -> {
+                    try (Connection conn = pool.getConnection(); Statement st = conn.createStatement()) {
+                        peak.accumulateAndGet(inUse.incrementAndGet(), Math::max);
+                        st.execute("SELECT 1");
+                        Thread.sleep(1);
+                        inUse.decrementAndGet();
+                        served.incrementAndGet();
+                    } catch (Exception e) {
+                        failed.incrementAndGet();
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+            assertTrue(done.await(120, TimeUnit.SECONDS), mode + " run did not finish");
+        } finally {
+            if (executor instanceof DisposableBean) {
+                ((DisposableBean) executor).destroy();
+            }
+        }
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        log.info("{} threads: {} tasks in {} ms, peak {} connections", mode, TASKS, millis, peak.get());
+
+        assertEquals(TASKS, served.get());
+        assertEquals(0, failed.get());
+        assertTrue(peak.get() <= POOL_SIZE, "peak connections in use: " + peak.get());
+    }
+}
@@ -0,0 +1,92 @@
+package edu.epam.fop.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.MethodParameter;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.ui.ModelMap;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.support.StaticWebApplicationContext;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InlineCallableReturnValueHandlerTest {
+
+    private final InlineCallableReturnValueHandler handler = new InlineCallableReturnValueHandler();
+    private final MockHttpServletRequest request = new MockHttpServletRequest();
+    private final ServletWebRequest webRequest = new ServletWebRequest(request, new MockHttpServletResponse());
+
+    @Test
+    void runsTheCallableOnTheCallingThread() throws Exception {
+        Thread caller = Thread.currentThread();
+        ModelAndViewContainer mav = new ModelAndViewContainer();
+        Callable<String> callable = () -> Thread.currentThread() == caller ? "books/list" : "wrong-thread";
+
+        handler.handleReturnValue(callable, returnType("page"), mav, webRequest);
+
+        assertEquals("books/list", mav.getViewName());
+        assertFalse(request.isAsyncStarted());
+    }
+
+    @Test
+    void redirectsUseTheRedirectModel() throws Exception {
+        ModelAndViewContainer mav = new ModelAndViewContainer();
+        ModelMap redirectModel = new ModelMap();
+        mav.setRedirectModel(redirectModel);
+        handler.handleReturnValue((Callable<String>) () -> "redirect:/books", returnType("page"), mav, webRequest);
+
+        assertEquals("redirect:/books", mav.getViewName());
+        assertSame(redirectModel, mav.getModel());
+    }
+
+    @Test
+    void exceptionsPropagate() {
+        IllegalStateException failure = new IllegalStateException("no connection");
+        Callable<String> callable = () -> {
+            throw failure;
+        };
+        assertSame(failure, assertThrows(IllegalStateException.class,
+                () -> handler.handleReturnValue(callable, returnType("page"), new ModelAndViewContainer(), webRequest)));
+    }
+
+    @Test
+    void installsAheadOfTheAsyncHandler() throws Exception {
+        StaticWebApplicationContext context = new StaticWebApplicationContext();
+        context.refresh();
+        RequestMappingHandlerAdapter adapter = new RequestMappingHandlerAdapter();
+        adapter.setApplicationContext(context);
+        adapter.afterPropertiesSet();
+        InlineCallableReturnValueHandler.install(adapter);
+
+        List<HandlerMethodReturnValueHandler> handlers = adapter.getReturnValueHandlers();
+        assertTrue(handlers.get(0) instanceof InlineCallableReturnValueHandler);
+        assertTrue(handlers.get(0).supportsReturnType(returnType("page")));
+        assertFalse(handlers.get(0).supportsReturnType(returnType("view")));
+    }
+
+    private static MethodParameter returnType(String method) throws NoSuchMethodException {
+        return new MethodParameter(Handlers.class.getDeclaredMethod(method), -1);
+    }
+
+    @SuppressWarnings("unused")
+    private static class Handlers {
+
+        Callable<String> page() {
+            return null;
+        }
+
+        String view() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package edu.epam.fop.dao;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Far more borrowers than connections: the semaphore must keep the pool within {@code maxSize},
+ * every borrower must eventually be served, borrowers that time out must give their permit back, and
+ * a handle kept after close must not touch the next borrower's lease.
+ */
+class ConnectionPoolStressTest {
+
+    private ConnectionPool pool;
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    @Test
+    void manyBorrowersNeverExceedMaxSize() throws Exception {
+        pool = new ConnectionPool(config("stress", 5, 20000));
+        int borrowers = 400;
+        AtomicInteger served = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicInteger inUse = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(borrowers);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(borrowers);
+        try {
+            for (int i = 0; i < borrowers; i++) {
+                executor.execute(() -> {
+                    try {
+                        start.await();
+                        try (Connection conn = pool.getConnection(); Statement st = conn.createStatement()) {
+                            peak.accumulateAndGet(inUse.incrementAndGet(), Math::max);
+                            st.execute("SELECT 1");
+                            Thread.sleep(2);
+                            inUse.decrementAndGet();
+                        }
+                        served.incrementAndGet();
+                    } catch (Exception e) {
+                        failed.incrementAndGet();
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+            start.countDown();
+            assertTrue(done.await(60, TimeUnit.SECONDS), "borrowers did not finish");
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(borrowers, served.get());
+        assertEquals(0, failed.get());
+        assertTrue(peak.get() <= 5, "peak connections in use: " + peak.get());
+        assertEquals(0, pool.getBusyCount());
+        assertEquals(0, pool.getStats().getTimeouts());
+    }
+
+    @Test
+    void timedOutBorrowersReturnTheirPermits() throws Exception {
+        pool = new ConnectionPool(config("timeouts", 2, 20000));
+        List<Connection> held = new ArrayList<>();
+        held.add(pool.getConnection());
+        held.add(pool.getConnection());
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(SQLException.class, () -> pool.getConnection(50, TimeUnit.MILLISECONDS));
+        }
+        assertEquals(3, pool.getStats().getTimeouts());
+
+        for (Connection conn : held) {
+            conn.close();
+        }
+        assertEquals(0, pool.getBusyCount());
+
+        // both permits are free again
+        try (Connection a = pool.getConnection(1, TimeUnit.SECONDS);
+             Connection b = pool.getConnection(1, TimeUnit.SECONDS)) {
+            assertEquals(2, pool.getBusyCount());
+        }
+        assertEquals(0, pool.getBusyCount());
+    }
+
+    @Test
+    void closedHandleCannotReachTheNextBorrower() throws Exception {
+        pool = new ConnectionPool(config("stale", 1, 20000));
+        Connection stale = pool.getConnection();
+        stale.close();
+
+        try (Connection current = pool.getConnection()) {
+            assertTrue(stale.isClosed());
+            assertThrows(SQLException.class, stale::createStatement);
+            stale.close(); // must not give back the current borrower's connection
+            assertEquals(1, pool.getBusyCount());
+            try (Statement st = current.createStatement()) {
+                st.execute("SELECT 1");
+            }
+        }
+        assertEquals(0, pool.getBusyCount());
+    }
+
+    static PoolConfig config(String name, int maxSize, long borrowTimeoutMillis) {
+        PoolConfig config = new PoolConfig();
+        config.setPoolName(name);
+        config.setUrl("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        config.setUsername("sa");
+        config.setPassword("");
+        config.setInitialSize(1);
+        config.setMinIdle(1);
+        config.setMaxSize(maxSize);
+        config.setBorrowTimeoutMillis(borrowTimeoutMillis);
+        return config;
+    }
+}
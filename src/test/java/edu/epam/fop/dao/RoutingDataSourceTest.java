@@ -0,0 +1,231 @@
+package edu.epam.fop.dao;
+
+import edu.epam.fop.annotation.ReadReplica;
+import edu.epam.fop.annotation.ReadYourWrites;
+import edu.epam.fop.aspect.DataSourceRoutingAspect;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Routing against H2 databases that each name themselves, through the routing aspect as services
+ * use it: {@code @ReadReplica} reads, read-your-writes pinning, replicas that die or are merely
+ * saturated, and failover to the primary.
+ */
+class RoutingDataSourceTest {
+
+    private static final long BORROW_TIMEOUT_MILLIS = 300;
+
+    // keep the named in-memory databases open until the test ends, or kill them with SHUTDOWN
+    private final Map<String, Connection> databases = new HashMap<>();
+    private final List<ConnectionPool> pools = new ArrayList<>();
+    private RoutingDataSource routing;
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        SecurityContextHolder.clearContext();
+        if (routing != null) {
+            routing.close();
+        }
+        for (ConnectionPool pool : pools) {
+            pool.close();
+        }
+        for (String name : databases.keySet()) {
+            kill(name);
+        }
+    }
+
+    @Test
+    void readReplicaReadsGoToTheReplica() throws Exception {
+        Reads reads = reads(routing(60000, replica("rr_replica")), 5000);
+
+        assertEquals("rr_replica", reads.replicaRead());
+        assertEquals("primary", reads.primaryRead());
+        assertEquals(1, routing.getTargets().get(1).getRoutedCount());
+    }
+
+    @Test
+    void readYourWritesPinsTheWriterUntilTheWindowExpires() throws Exception {
+        Reads reads = reads(routing(60000, replica("ryw_replica")), 300);
+
+        login("alice");
+        reads.write();
+        assertEquals("primary", reads.replicaRead());
+        login("bob");
+        assertEquals("ryw_replica", reads.replicaRead());
+
+        login("alice");
+        waitFor(() -> "ryw_replica".equals(reads.replicaRead()), 5000);
+    }
+
+    @Test
+    void deadReplicaIsMarkedDownOnBorrow() throws Exception {
+        ConnectionPool replica = replica("dead_replica");
+        Reads reads = reads(routing(60000, replica), 5000);
+        assertEquals("dead_replica", reads.replicaRead());
+
+        kill("dead_replica");
+        assertEquals("primary", reads.replicaRead());
+        assertFalse(target(1).isHealthy());
+        assertEquals(1, target(0).getFailoverCount());
+    }
+
+    @Test
+    void deadReplicaIsMarkedDownByTheHealthCheck() throws Exception {
+        routing(50, replica("checked_replica"));
+
+        kill("checked_replica");
+        waitFor(() -> !target(1).isHealthy(), 5000);
+    }
+
+    @Test
+    void saturatedReplicaIsBusyNotDown() throws Exception {
+        ConnectionPool replica = replica("busy_replica");
+        Reads reads = reads(routing(50, replica), 5000);
+
+        try (Connection held = replica.getConnection()) {
+            assertEquals("primary", reads.replicaRead());
+            // several health checks run while the only connection is still borrowed
+            Thread.sleep(300);
+            assertTrue(target(1).isHealthy());
+        }
+        assertEquals("busy_replica", reads.replicaRead());
+    }
+
+    @Test
+    void readsFailOverToThePrimaryWhenEveryReplicaIsDown() throws Exception {
+        Reads reads = reads(routing(60000, replica("down_1"), replica("down_2")), 5000);
+        kill("down_1");
+        kill("down_2");
+
+        assertEquals("primary", reads.replicaRead());
+        assertFalse(target(1).isHealthy());
+        assertFalse(target(2).isHealthy());
+        // nothing left to try: later reads go straight to the primary
+        assertEquals("primary", reads.replicaRead());
+        assertEquals(2, target(0).getFailoverCount());
+    }
+
+    private RoutingDataSource routing(long healthCheckMillis, ConnectionPool... replicas) throws SQLException {
+        ConnectionPool primary = pool(database("primary"), "primary");
+        routing = new RoutingDataSource(primary, List.of(replicas), RoutingDataSource.Selection.ROUND_ROBIN,
+                BORROW_TIMEOUT_MILLIS, healthCheckMillis);
+        // the replica pools are closed by the routing data source
+        pools.removeAll(List.of(replicas));
+        return routing;
+    }
+
+    private ConnectionPool replica(String name) throws SQLException {
+        return pool(database(name), name);
+    }
+
+    private RoutingDataSource.Target target(int index) {
+        return routing.getTargets().get(index);
+    }
+
+    private static Reads reads(RoutingDataSource routing, long readYourWritesMillis) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(new Reads(routing));
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new DataSourceRoutingAspect(routing, readYourWritesMillis));
+        return factory.getProxy();
+    }
+
+    // a database whose single row holds its own name; IFEXISTS stops a killed one from coming back
+    private String database(String name) throws SQLException {
+        Connection db = DriverManager.getConnection("jdbc:h2:mem:routing_" + name, "sa", "");
+        databases.put(name, db);
+        try (Statement st = db.createStatement()) {
+            st.execute("CREATE TABLE whoami (name VARCHAR(50))");
+            st.execute("INSERT INTO whoami VALUES ('" + name + "')");
+        }
+        return "jdbc:h2:mem:routing_" + name + ";IFEXISTS=TRUE";
+    }
+
+    private void kill(String name) throws SQLException {
+        Connection db = databases.get(name);
+        if (!db.isClosed()) {
+            try (Statement st = db.createStatement()) {
+                st.execute("SHUTDOWN");
+            }
+        }
+    }
+
+    private ConnectionPool pool(String url, String name) {
+        PoolConfig config = new PoolConfig();
+        config.setPoolName(name);
+        config.setUrl(url);
+        config.setUsername("sa");
+        config.setPassword("");
+        config.setInitialSize(1);
+        config.setMinIdle(1);
+        config.setMaxSize(1);
+        config.setBorrowTimeoutMillis(5000);
+        ConnectionPool pool = new ConnectionPool(config);
+        pools.add(pool);
+        return pool;
+    }
+
+    private static void login(String username) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                username, null, AuthorityUtils.createAuthorityList("ROLE_READER")));
+    }
+
+    private static void waitFor(BooleanSupplier condition, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "condition not met within " + timeoutMillis + " ms");
+            Thread.sleep(20);
+        }
+    }
+
+    static class Reads {
+
+        private final DataSource dataSource;
+
+        Reads(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        @ReadReplica
+        public String replicaRead() {
+            return whoami();
+        }
+
+        public String primaryRead() {
+            return whoami();
+        }
+
+        @ReadYourWrites
+        public void write() {
+        }
+
+        String whoami() {
+            try (Connection conn = dataSource.getConnection(); Statement st = conn.createStatement();
+                 ResultSet rs = st.executeQuery("SELECT name FROM whoami")) {
+                rs.next();
+                return rs.getString(1);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
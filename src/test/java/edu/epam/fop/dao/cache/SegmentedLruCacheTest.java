@@ -0,0 +1,76 @@
+package edu.epam.fop.dao.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * A write inside a transaction must not leave the pre-commit row in the cache once it commits,
+ * even if another reader loaded and stored it between the invalidation and the commit.
+ */
+class SegmentedLruCacheTest {
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    void invalidatesAgainAfterCommit() throws Exception {
+        SegmentedLruCache<Long, String> cache = new SegmentedLruCache<>("test", 10, 0, v -> v);
+        AtomicReference<String> row = new AtomicReference<>("old");
+        cache.get(1L, id -> row.get());
+
+        TransactionSynchronizationManager.initSynchronization();
+        row.set("new"); // written, not yet visible to other readers
+        cache.invalidate(1L);
+
+        // a concurrent miss before the commit still reads the committed row and stores it
+        String seen = runOnOtherThread(key -> cache.get(key, id -> "old"));
+        assertEquals("old", seen);
+
+        for (TransactionSynchronization sync : TransactionSynchronizationManager.getSynchronizations()) {
+            sync.afterCommit();
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertEquals("new", cache.get(1L, id -> row.get()));
+    }
+
+    @Test
+    void loadsInsideReadWriteTransactionAreNotStored() throws Exception {
+        SegmentedLruCache<Long, String> cache = new SegmentedLruCache<>("test", 10, 0, v -> v);
+
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        assertEquals("uncommitted", cache.get(1L, id -> "uncommitted"));
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+
+        assertEquals("committed", cache.get(1L, id -> "committed"));
+    }
+
+    private static String runOnOtherThread(SegmentedLruCache.Loader<Long, String> body) throws Exception {
+        AtomicReference<String> result = new AtomicReference<>();
+        AtomicReference<Exception> error = new AtomicReference<>();
+        Thread thread = new Thread(() -> {
+            try {
+                result.set(body.load(1L));
+            } catch (Exception e) {
+                error.set(e);
+            }
+        });
+        thread.start();
+        thread.join();
+        if (error.get() != null) {
+            throw error.get();
+        }
+        return result.get();
+    }
+}
@@ -0,0 +1,54 @@
+package edu.epam.fop.dao.impl;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Detection of the unique index on inventory numbers, which startup reports when it is missing.
+ */
+class BookCopyDaoImplTest {
+
+    @Test
+    void findsUniqueConstraint() throws SQLException {
+        assertTrue(dao("unique_constraint", "CREATE TABLE book_copies (id BIGINT PRIMARY KEY, "
+                + "inventory_number VARCHAR(50) NOT NULL UNIQUE, status VARCHAR(20), book_id BIGINT)")
+                .hasUniqueInventoryNumber());
+    }
+
+    @Test
+    void findsUniqueIndex() throws SQLException {
+        assertTrue(dao("unique_index", "CREATE TABLE book_copies (id BIGINT PRIMARY KEY, "
+                        + "inventory_number VARCHAR(50) NOT NULL, status VARCHAR(20), book_id BIGINT)",
+                "CREATE UNIQUE INDEX ux_book_copies_inventory_number ON book_copies (inventory_number)")
+                .hasUniqueInventoryNumber());
+    }
+
+    @Test
+    void ignoresPlainAndCompositeIndexes() throws SQLException {
+        assertFalse(dao("no_unique", "CREATE TABLE book_copies (id BIGINT PRIMARY KEY, "
+                        + "inventory_number VARCHAR(50) NOT NULL, status VARCHAR(20), book_id BIGINT)",
+                "CREATE INDEX idx_inventory ON book_copies (inventory_number)",
+                "CREATE UNIQUE INDEX ux_book_inventory ON book_copies (book_id, inventory_number)")
+                .hasUniqueInventoryNumber());
+    }
+
+    private static BookCopyDaoImpl dao(String name, String... ddl) throws SQLException {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+        try (Connection conn = dataSource.getConnection(); Statement st = conn.createStatement()) {
+            st.execute("DROP TABLE IF EXISTS book_copies");
+            for (String sql : ddl) {
+                st.execute(sql);
+            }
+        }
+        return new BookCopyDaoImpl(dataSource);
+    }
+}
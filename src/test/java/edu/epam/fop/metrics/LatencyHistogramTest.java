@@ -0,0 +1,101 @@
+package edu.epam.fop.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+
+    private static final long MAX_MICROS = (1L << 37) - 1;
+
+    @Test
+    void smallValuesGetOneBucketEach() {
+        for (int micros = 0; micros < 16; micros++) {
+            assertEquals(micros, LatencyHistogram.bucketOf(micros));
+            assertEquals(micros + 1, LatencyHistogram.upperBoundMicros(micros));
+        }
+        // 16..17 is the first log-linear bucket, two microseconds wide
+        assertEquals(16, LatencyHistogram.bucketOf(16));
+        assertEquals(16, LatencyHistogram.bucketOf(17));
+        assertEquals(17, LatencyHistogram.bucketOf(18));
+        assertEquals(18, LatencyHistogram.upperBoundMicros(16));
+    }
+
+    @Test
+    void bucketsAreContiguousAndWithinOneEighth() {
+        int last = LatencyHistogram.bucketOf(MAX_MICROS);
+        assertEquals(MAX_MICROS + 1, LatencyHistogram.upperBoundMicros(last));
+        long lower = 0;
+        for (int bucket = 0; bucket <= last; bucket++) {
+            long upper = LatencyHistogram.upperBoundMicros(bucket);
+            assertEquals(bucket, LatencyHistogram.bucketOf(lower), "lower bound of bucket " + bucket);
+            assertEquals(bucket, LatencyHistogram.bucketOf(upper - 1), "upper bound of bucket " + bucket);
+            if (lower >= 16) {
+                assertTrue((upper - lower) * 8 <= lower, "bucket " + bucket + " is wider than 12.5%");
+            }
+            lower = upper;
+        }
+    }
+
+    @Test
+    void emptyHistogramReportsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getP50Millis());
+        assertEquals(0, histogram.getAverageMillis());
+        assertArrayEquals(new long[]{0, 0}, histogram.cumulativeCounts(new double[]{1, 10}));
+    }
+
+    @Test
+    void percentilesAreBucketUpperBoundsCappedAtTheMax() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int ms = 1; ms <= 100; ms++) {
+            histogram.record(ms * 1_000_000L);
+        }
+        assertEquals(100, histogram.getCount());
+        assertEquals(50.5, histogram.getAverageMillis(), 1e-9);
+        assertEquals(100, histogram.getMaxMillis());
+
+        assertWithinBucket(50, histogram.getP50Millis());
+        assertWithinBucket(95, histogram.getP95Millis());
+        assertWithinBucket(99, histogram.getP99Millis());
+        assertEquals(100, histogram.percentileMillis(1.0));
+        assertWithinBucket(1, histogram.percentileMillis(0.0));
+    }
+
+    @Test
+    void negativeAndHugeDurationsAreClamped() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(2, histogram.getCount());
+        assertEquals(0.001, histogram.percentileMillis(0.5));
+        assertArrayEquals(new long[]{1, 2}, histogram.cumulativeCounts(new double[]{0.001, 1e12}));
+    }
+
+    @Test
+    void cumulativeCountsOnlyIncludeWholeBuckets() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        record(histogram, 1, 3);
+        record(histogram, 10, 2);
+        record(histogram, 1000, 1);
+
+        assertArrayEquals(new long[]{0, 3, 5, 5, 6},
+                histogram.cumulativeCounts(new double[]{0.5, 5, 50, 500, 5000}));
+        // the 1 ms bucket ends at 1.024 ms, so it is not counted under a 1 ms bound
+        assertArrayEquals(new long[]{0, 3}, histogram.cumulativeCounts(new double[]{1, 1.024}));
+    }
+
+    private static void record(LatencyHistogram histogram, long millis, int times) {
+        for (int i = 0; i < times; i++) {
+            histogram.record(millis * 1_000_000L);
+        }
+    }
+
+    private static void assertWithinBucket(double expectedMillis, double actualMillis) {
+        assertTrue(actualMillis >= expectedMillis && actualMillis <= expectedMillis * 1.125,
+                "expected " + expectedMillis + " ms within one bucket, got " + actualMillis);
+    }
+}
@@ -0,0 +1,100 @@
+package edu.epam.fop.service;
+
+import edu.epam.fop.dao.BookDao;
+import edu.epam.fop.model.Book;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Ranking and keyset paging of the in-memory catalogue index: exact words before prefixes before
+ * infixes, ties by title, and pages continuing after the last id of the previous page.
+ */
+class CatalogSearchIndexTest {
+
+    private CatalogSearchIndex index;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        BookDao bookDao = mock(BookDao.class);
+        when(bookDao.findAll()).thenReturn(List.of(
+                book(1, "War and Peace", "Leo Tolstoy"),
+                book(2, "Peace Talks", "Jim Butcher"),
+                book(3, "Peacemaker", "Anna Smith"),
+                book(4, "Unpeaceful Days", "Ben Jones"),
+                book(5, "Other Stories", "Rosa Peace"),
+                book(6, "V\u00e1lka s mloky", "Karel \u010capek")));
+        index = new CatalogSearchIndex(bookDao, 0);
+        index.afterPropertiesSet();
+    }
+
+    @Test
+    void ranksExactThenPrefixThenInfix() {
+        assertTrue(index.isReady());
+        assertEquals(List.of(2L, 1L, 3L, 4L), index.search("peace", null, null, 10));
+        // each filter only looks at its own field
+        assertEquals(List.of(5L), index.search(null, "peace", null, 10));
+    }
+
+    @Test
+    void shortQueriesMatchWordPrefixesOnly() {
+        // all three are prefix matches, so they tie and are ordered by title
+        assertEquals(List.of(2L, 3L, 1L), index.search("pe", null, null, 10));
+    }
+
+    @Test
+    void allFiltersAndWordsMustMatch() {
+        assertEquals(List.of(1L), index.search("peace", "tolstoy", null, 10));
+        assertEquals(List.of(1L), index.search("war peace", null, null, 10));
+        assertEquals(List.of(), index.search("peace", "capek", null, 10));
+        assertEquals(List.of(), index.search(" ", null, null, 10));
+    }
+
+    @Test
+    void ignoresCaseAndAccents() {
+        assertEquals(List.of(6L), index.search("VALKA", "capek", null, 10));
+    }
+
+    @Test
+    void pagesContinueAfterTheLastId() {
+        List<Long> all = new ArrayList<>();
+        Long after = null;
+        List<Long> page;
+        do {
+            page = index.search("peace", null, after, 2);
+            assertTrue(page.size() <= 2);
+            all.addAll(page);
+            after = page.isEmpty() ? null : page.get(page.size() - 1);
+        } while (page.size() == 2);
+        assertEquals(List.of(2L, 1L, 3L, 4L), all);
+        assertEquals(List.of(), index.search("peace", null, 4L, 2));
+    }
+
+    @Test
+    void pagingRestartsWhenTheCursorBookIsGone() {
+        index.remove(1L);
+        assertEquals(List.of(2L, 3L), index.search("peace", null, 1L, 2));
+    }
+
+    @Test
+    void putReindexesAndRemoveDrops() {
+        index.put(book(2, "Quiet Talks", "Jim Butcher"));
+        index.remove(3L);
+        assertEquals(List.of(1L, 4L), index.search("peace", null, null, 10));
+        assertEquals(List.of(2L), index.search("quiet", null, null, 10));
+        assertEquals(List.of(2L), index.search("talks", null, null, 10));
+    }
+
+    private static Book book(long id, String title, String author) {
+        Book book = new Book(title, author, null);
+        book.setId(id);
+        return book;
+    }
+}
@@ -0,0 +1,59 @@
+package edu.epam.fop.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CsvReaderTest {
+
+    @Test
+    void splitsPlainAndEmptyFields() throws IOException {
+        CsvReader reader = reader("title,author,,last\n");
+        assertEquals(List.of("title", "author", "", "last"), reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void quotedFieldsKeepCommasAndEscapedQuotes() throws IOException {
+        CsvReader reader = reader("\"Hello, World\",\"She said \"\"hi\"\"\",\"\"\n");
+        assertEquals(List.of("Hello, World", "She said \"hi\"", ""), reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void quotedFieldsMaySpanLines() throws IOException {
+        CsvReader reader = reader("a,\"first line\r\nsecond line\nthird\",b\r\nnext,row\r\n");
+        assertEquals(List.of("a", "first line\r\nsecond line\nthird", "b"), reader.next());
+        assertEquals(1, reader.getRecordLine());
+        assertEquals(List.of("next", "row"), reader.next());
+        assertEquals(4, reader.getRecordLine());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void skipsBlankLinesAndAcceptsAMissingFinalNewline() throws IOException {
+        CsvReader reader = reader("a,b\r\n\r\n\nc,d");
+        assertEquals(List.of("a", "b"), reader.next());
+        assertEquals(List.of("c", "d"), reader.next());
+        assertEquals(4, reader.getRecordLine());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void unterminatedQuoteFails() throws IOException {
+        CsvReader reader = reader("ok\n\"never closed,\nstill open");
+        assertEquals(List.of("ok"), reader.next());
+        IOException e = assertThrows(IOException.class, reader::next);
+        assertEquals("Unterminated quoted field starting on line 2", e.getMessage());
+    }
+
+    private static CsvReader reader(String text) {
+        return new CsvReader(new StringReader(text));
+    }
+}
@@ -0,0 +1,160 @@
+package edu.epam.fop.service;
+
+import edu.epam.fop.dao.ConnectionPool;
+import edu.epam.fop.dao.JdbcTransactionManager;
+import edu.epam.fop.dao.PoolConfig;
+import edu.epam.fop.dao.impl.BookCopyDaoImpl;
+import edu.epam.fop.dao.impl.BookDaoImpl;
+import edu.epam.fop.dao.impl.OrderDaoImpl;
+import edu.epam.fop.dao.impl.UserDaoImpl;
+import edu.epam.fop.model.Book;
+import edu.epam.fop.model.BookCopy;
+import edu.epam.fop.model.LendingType;
+import edu.epam.fop.model.Order;
+import edu.epam.fop.model.Status;
+import edu.epam.fop.model.User;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.TransactionAwareDataSourceProxy;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Many readers request the same book at once against a real PostgreSQL: every available copy must
+ * be handed out exactly once and every other request must come back empty.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class OrderServiceContentionTest {
+
+    private static final int THREADS = 64;
+    private static final int COPIES = 5;
+    private static final int ROUNDS = 10;
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withInitScript("db/schema.sql");
+
+    private static ConnectionPool pool;
+    private static DataSource dataSource;
+    private static OrderService orderService;
+    private static BookDaoImpl bookDao;
+    private static BookCopyDaoImpl copyDao;
+    private static User reader;
+
+    @BeforeAll
+    static void setUp() throws SQLException {
+        PoolConfig config = new PoolConfig();
+        config.setUrl(postgres.getJdbcUrl());
+        config.setUsername(postgres.getUsername());
+        config.setPassword(postgres.getPassword());
+        config.setInitialSize(4);
+        config.setMinIdle(4);
+        config.setMaxSize(16);
+        pool = new ConnectionPool(config);
+        dataSource = new TransactionAwareDataSourceProxy(new LazyConnectionDataSourceProxy(pool));
+
+        bookDao = new BookDaoImpl(dataSource);
+        copyDao = new BookCopyDaoImpl(dataSource);
+        OrderDaoImpl orderDao = new OrderDaoImpl(dataSource);
+        JdbcTransactionManager txManager = new JdbcTransactionManager(new DataSourceTransactionManager(dataSource), dataSource);
+        orderService = new OrderService(orderDao, copyDao, bookDao, txManager, new ReportService(orderDao, 300000));
+
+        reader = User.builder().username("reader").password("x").build();
+        reader.setId(new UserDaoImpl(dataSource).save(reader));
+    }
+
+    @AfterAll
+    static void tearDown() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    @Test
+    void concurrentRequestsNeverShareACopy() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                Long bookId = bookWithCopies(round);
+
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<Order>> results = new ArrayList<>();
+                for (int i = 0; i < THREADS; i++) {
+                    results.add(executor.submit(() -> {
+                        start.await();
+                        return orderService.createOrder(reader, bookId, LendingType.HOME);
+                    }));
+                }
+                start.countDown();
+
+                Set<Long> claimed = new HashSet<>();
+                int granted = 0;
+                for (Future<Order> result : results) {
+                    Order order = result.get(30, TimeUnit.SECONDS);
+                    if (order != null) {
+                        assertNotNull(order.getId());
+                        claimed.add(order.getCopy().getId());
+                        granted++;
+                    }
+                }
+
+                assertEquals(COPIES, granted, "orders granted");
+                assertEquals(COPIES, claimed.size(), "distinct copies among granted orders");
+                assertEquals(COPIES, count("SELECT COUNT(*) FROM orders o JOIN book_copies c ON c.id = o.copy_id "
+                        + "WHERE c.book_id = ?", bookId), "orders stored");
+                assertEquals(COPIES, count("SELECT COUNT(DISTINCT o.copy_id) FROM orders o JOIN book_copies c "
+                        + "ON c.id = o.copy_id WHERE c.book_id = ?", bookId), "distinct copies among stored orders");
+                assertEquals(COPIES, count("SELECT COUNT(*) FROM book_copies WHERE book_id = ? AND status = 'RESERVED'",
+                        bookId), "reserved copies");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(0, pool.getStats().getActive(), "connections still borrowed");
+    }
+
+    private static Long bookWithCopies(int round) throws SQLException {
+        Book book = new Book("Contended " + round, "Author", null);
+        Long bookId = bookDao.save(book);
+        book.setId(bookId);
+        for (int i = 0; i < COPIES; i++) {
+            BookCopy copy = new BookCopy("C-" + round + "-" + i, Status.AVAILABLE);
+            copy.setBook(book);
+            copyDao.save(copy);
+        }
+        return bookId;
+    }
+
+    private static long count(String sql, Long bookId) throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setLong(1, bookId);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+}
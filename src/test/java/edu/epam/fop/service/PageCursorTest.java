@@ -0,0 +1,47 @@
+package edu.epam.fop.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PageCursorTest {
+
+    @Test
+    void idCursorRoundTrips() {
+        PageCursor cursor = PageCursor.decode(PageCursor.afterId(42L).encode());
+        assertEquals(42L, cursor.getId());
+        assertNull(cursor.getCreatedAt());
+    }
+
+    @Test
+    void timeAndIdCursorRoundTrips() {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 2, 29, 23, 59, 58, 123_456_000);
+        String token = PageCursor.after(createdAt, 7L).encode();
+
+        assertTrue(token.matches("[A-Za-z0-9_-]+"), "token is not URL-safe: " + token);
+        PageCursor cursor = PageCursor.decode(token);
+        assertEquals(createdAt, cursor.getCreatedAt());
+        assertEquals(7L, cursor.getId());
+    }
+
+    @Test
+    void missingOrInvalidTokensStartFromTheBeginning() {
+        assertNull(PageCursor.decode(null));
+        assertNull(PageCursor.decode(""));
+        assertNull(PageCursor.decode("   "));
+        assertNull(PageCursor.decode("not base64!"));
+        assertNull(PageCursor.decode(encode("abc")));
+        assertNull(PageCursor.decode(encode("yesterday|5")));
+        assertNull(PageCursor.decode(encode("2024-01-01T00:00|x")));
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,61 @@
+package edu.epam.fop.service;
+
+import edu.epam.fop.model.User;
+import edu.epam.fop.security.CustomUserDetails;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * A principal cached by a login between the invalidation and the commit of a user change must
+ * not survive the commit.
+ */
+class UserDetailsCacheTest {
+
+    private final UserDetailsCache cache = new UserDetailsCache(60, 100);
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void invalidatesByNameAgainAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        cache.invalidate("reader");
+        cache.put(details(1L, "reader")); // a login reloaded the not yet blocked row
+        assertNotNull(cache.get("reader"));
+
+        commit();
+        assertNull(cache.get("reader"));
+    }
+
+    @Test
+    void invalidatesByIdAgainAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        cache.invalidate(1L);
+        cache.put(details(1L, "reader"));
+
+        commit();
+        assertNull(cache.get("reader"));
+    }
+
+    private static void commit() {
+        for (TransactionSynchronization sync : TransactionSynchronizationManager.getSynchronizations()) {
+            sync.afterCommit();
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    private static CustomUserDetails details(Long id, String username) {
+        User user = new User(username, "hash");
+        user.setId(id);
+        return new CustomUserDetails(user);
+    }
+}
@@ -0,0 +1,43 @@
+-- Minimal PostgreSQL schema for the integration tests, matching the columns the DAOs use.
+
+CREATE TABLE users (
+    id       BIGSERIAL PRIMARY KEY,
+    username VARCHAR(100) NOT NULL UNIQUE,
+    password VARCHAR(100) NOT NULL,
+    blocked  BOOLEAN NOT NULL DEFAULT FALSE
+);
+
+CREATE TABLE roles (
+    id   BIGSERIAL PRIMARY KEY,
+    name VARCHAR(50) NOT NULL UNIQUE
+);
+
+CREATE TABLE user_roles (
+    user_id BIGINT NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    role_id BIGINT NOT NULL REFERENCES roles (id) ON DELETE CASCADE,
+    PRIMARY KEY (user_id, role_id)
+);
+
+CREATE TABLE books (
+    id          BIGSERIAL PRIMARY KEY,
+    title       VARCHAR(255) NOT NULL,
+    author      VARCHAR(255),
+    description TEXT
+);
+
+CREATE TABLE book_copies (
+    id               BIGSERIAL PRIMARY KEY,
+    inventory_number VARCHAR(50) NOT NULL UNIQUE,
+    status           VARCHAR(20) NOT NULL,
+    book_id          BIGINT REFERENCES books (id) ON DELETE CASCADE
+);
+
+CREATE TABLE orders (
+    id          BIGSERIAL PRIMARY KEY,
+    user_id     BIGINT NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    copy_id     BIGINT NOT NULL REFERENCES book_copies (id) ON DELETE CASCADE,
+    status      VARCHAR(20) NOT NULL,
+    dueDate     DATE,
+    lendingType VARCHAR(20),
+    createdAt   TIMESTAMP NOT NULL DEFAULT now()
+);